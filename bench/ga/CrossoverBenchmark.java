@@ -0,0 +1,40 @@
+package ga;
+
+import org.openjdk.jmh.annotations.*;
+import util.Util;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of crossing over two chromosomes, including scoring both children
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CrossoverBenchmark {
+    @Param({"t1", "t2", "t1x4", "t1x16"})
+    public String problem;
+
+    @Param({"None", "OnePoint", "Uniform", "BestAttempt"})
+    public GAParameters.CrossoverKind crossover;
+
+    private GA ga;
+    private Chromosome[] chromosomes;
+    private int next;
+
+    @Setup
+    public void setup() throws IOException {
+        ga = Problems.ga(Problems.load(problem), 64);
+        chromosomes = Problems.population(ga, 64);
+    }
+
+    @Benchmark
+    public Util.Tuple<Chromosome, Chromosome> crossover(){
+        next = (next + 2) & 63;
+        return crossover.crossover.crossover(chromosomes[next], chromosomes[next + 1], ga);
+    }
+}
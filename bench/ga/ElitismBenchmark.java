@@ -0,0 +1,44 @@
+package ga;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of collecting a generations stats and its elites then placing the elites in the next population
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ElitismBenchmark {
+    @Param({"500", "10000"})
+    public int populationSize;
+
+    @Param({"1", "10", "100"})
+    public int elitismRate;
+
+    private Chromosome[] population;
+    private Chromosome[] next;
+    private GenerationStat.Accumulator accumulator;
+
+    @Setup
+    public void setup() throws IOException {
+        var ga = Problems.ga(Problems.load("t1"), populationSize);
+        population = Problems.population(ga, populationSize);
+        next = new Chromosome[populationSize];
+        accumulator = new GenerationStat.Accumulator(ga.cmp, false, elitismRate);
+    }
+
+    @Benchmark
+    public GenerationStat evaluateAndElitism(){
+        accumulator.reset(populationSize);
+        for(var c : population) accumulator.add(c);
+        var stat = accumulator.stat(-1, -1);
+        accumulator.elites(next);
+        return stat;
+    }
+}
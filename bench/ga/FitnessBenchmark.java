@@ -0,0 +1,45 @@
+package ga;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of scoring a chromosome, both from scratch and as a single gene mutation of a parent
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FitnessBenchmark {
+    @Param({"t1", "t2", "t1x4", "t1x16"})
+    public String problem;
+
+    private GA ga;
+    private Chromosome[] chromosomes;
+    private int next;
+
+    @Setup
+    public void setup() throws IOException {
+        ga = Problems.ga(Problems.load(problem), 64);
+        chromosomes = Problems.population(ga, 64);
+    }
+
+    private Chromosome next(){
+        next = (next + 1) & 63;
+        return chromosomes[next];
+    }
+
+    @Benchmark
+    public int conflicts(){
+        return next().conflicts(ga.problemSet);
+    }
+
+    @Benchmark
+    public Chromosome singleGeneMutation(){
+        return next().singleGeneMutation(ga);
+    }
+}
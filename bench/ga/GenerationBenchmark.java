@@ -0,0 +1,41 @@
+package ga;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of a full generation: elitism, selection, crossover, mutation and evaluation
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GenerationBenchmark {
+    @Param({"t1", "t2", "t1x4", "t1x16"})
+    public String problem;
+
+    @Param({"100", "500", "2000"})
+    public int populationSize;
+
+    @Param({"OnePoint", "BestAttempt"})
+    public GAParameters.CrossoverKind crossover;
+
+    private GA ga;
+    private int generation;
+
+    @Setup(Level.Iteration)
+    public void setup() throws IOException {
+        ga = Problems.ga(Problems.load(problem), 0, populationSize, 1, GAParameters.SelectionKind.Tournament, crossover);
+        ga.start();
+        generation = 0;
+    }
+
+    @Benchmark
+    public Chromosome generation(){
+        return ga.step(++generation);
+    }
+}
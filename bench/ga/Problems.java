@@ -0,0 +1,64 @@
+package ga;
+
+import data.Course;
+import data.ProblemSet;
+import data.Room;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Problem sets and GAs shared by the benchmarks.
+ * <br/>
+ * Problems are named after a directory in data/ (override with -Dbench.data=...) optionally followed by xN, which makes
+ * a synthetic problem N times larger by copying every course and room N times with their own professors and rooms
+ * while keeping the same timeslots.
+ */
+final class Problems {
+    private Problems(){}
+
+    static ProblemSet load(String name) throws IOException {
+        var parts = name.split("x");
+        var base = new ProblemSet(System.getProperty("bench.data", "data") + File.separator + parts[0]);
+        if(parts.length == 1) return base;
+
+        var scale = Integer.parseInt(parts[1]);
+        var courses = new ArrayList<Course>();
+        var rooms = new ArrayList<Room>();
+        for(int copy = 0; copy < scale; copy ++){
+            for(var course : base.courses)
+                courses.add(new Course(course.name, course.professor + " #" + copy, course.students, course.duration));
+            for(var room : base.rooms)
+                rooms.add(new Room(room.name + " #" + copy, room.capacity));
+        }
+        return new ProblemSet(courses, rooms, base.timeslots);
+    }
+
+    static GA ga(ProblemSet problemSet, long seed, int populationSize, int elitismRate,
+                 GAParameters.SelectionKind select, GAParameters.CrossoverKind crossover){
+        return new GA(
+                seed, problemSet,
+                elitismRate, 0.9, 0.1, populationSize, 4,
+                GAParameters.InitializerKind.Random.initializer,
+                select.selector,
+                GAParameters.FitnessKind.WeightedConflicts.fitness,
+                GAParameters.MutationKind.SingleGene.fitness,
+                crossover.crossover,
+                GAParameters.EncodingKind.Free,
+                GA.GaRNG.Engine.Legacy,
+                null,
+                null
+        );
+    }
+
+    static GA ga(ProblemSet problemSet, int populationSize){
+        return ga(problemSet, 0, populationSize, 1, GAParameters.SelectionKind.Tournament, GAParameters.CrossoverKind.OnePoint);
+    }
+
+    static Chromosome[] population(GA ga, int size){
+        var population = new Chromosome[size];
+        for(int i = 0; i < size; i ++) population[i] = Chromosome.random(ga);
+        return population;
+    }
+}
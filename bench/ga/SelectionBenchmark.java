@@ -0,0 +1,42 @@
+package ga;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of selecting an entire mating pool from a population
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SelectionBenchmark {
+    @Param({"t1"})
+    public String problem;
+
+    @Param({"100", "1000", "10000"})
+    public int populationSize;
+
+    @Param({"Tournament", "Random", "StochasticUniversal", "AliasFitness", "AliasRank"})
+    public GAParameters.SelectionKind select;
+
+    private GA ga;
+    private Chromosome[] population;
+
+    @Setup
+    public void setup() throws IOException {
+        ga = Problems.ga(Problems.load(problem), populationSize);
+        population = Problems.population(ga, populationSize);
+    }
+
+    @Benchmark
+    public void matingPool(Blackhole bh){
+        var selector = select.selector.prepare(population, ga);
+        for(int i = 0; i < populationSize; i ++) bh.consume(selector.select(population, i, ga));
+    }
+}
@@ -10,6 +10,7 @@ javac -d ./build/ \
 ./src/data/*.java \
 ./src/ga/*.java \
 ./src/ga/functional/*.java \
+./src/ga/remote/*.java \
 ./src/util/*.java
 
 jar cvfe assign2.jar Main -C ./build .
\ No newline at end of file
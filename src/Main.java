@@ -1,4 +1,6 @@
 import ga.*;
+import ga.remote.Coordinator;
+import ga.remote.Worker;
 import util.*;
 
 import java.io.File;
@@ -6,8 +8,13 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
@@ -17,27 +24,81 @@ import java.util.stream.Stream;
 class Main {
     public static void main(String[] args) throws IOException {
         var cli = new CliArgs(args);
+        // only read when the virtual thread scheduler first starts, so it has to be set before any thread is
+        if(cli.virtualCarriers != null)
+            System.setProperty("jdk.virtualThreadScheduler.parallelism", String.valueOf(cli.virtualCarriers));
+        if(cli.analyzeRuns != null){
+            analyzeRuns(Path.of(cli.analyzeRuns));
+            return;
+        }
+        if(cli.workerHost != null){
+            Worker.run(cli.workerHost, cli.workerPort, cli.workerIslands);
+            return;
+        }
         System.out.println(cli.problemSet);
+        if(cli.phaseTimes) PhaseMetrics.register();
 
-        ensureRunDir();
+        if(cli.resume) Files.createDirectories(Paths.get("runs"));
+        else ensureRunDir();
 
-        var runs = runConfigurations(cli).peek(item -> {
-            try {
-                Files.write(Paths.get("runs/run"+item.run+".json"), item.toString().getBytes());
-                Files.write(Paths.get("runs/run"+item.run+".tex"), LatexGraph.graph(item).getBytes());
-            } catch (Exception e) {
-                throw new RuntimeException(e);
-            }
-        }).toList();
+        // kept outside of runs/ since that is wiped whenever a sweep starts over
+        var checkpoints = cli.checkpointInterval == null && !cli.resume ? null : new Checkpoints(
+                Path.of(cli.checkpointDir), cli.checkpointInterval == null ? 0 : cli.checkpointInterval, cli.generations, cli.resume
+        );
+        var results = cli.resultCache == null ? null : new ResultCache(Path.of(cli.resultCache), cli);
+        var coordinator = cli.coordinatorPort == null ? null : new Coordinator(cli.coordinatorHost, cli.coordinatorPort);
+        if(coordinator != null) System.out.println("Waiting for workers on " + coordinator.address());
+        List<GARuns> runs;
+        try(var sweep = new Sweep(cli, coordinator, checkpoints, results)){
+            runs = runConfigurations(sweep).peek(item -> {
+                var bin = Paths.get("runs/run"+item.run+".bin");
+                // runs/ starts out empty unless resuming, so only configurations finished by an earlier attempt have one
+                if(Files.exists(bin)) return;
+                try {
+                    try(var json = new JsonWriter(Files.newBufferedWriter(Paths.get("runs/run"+item.run+".json")))){
+                        item.json(json);
+                    }
+                    Files.write(Paths.get("runs/run"+item.run+".tex"), LatexGraph.graph(item).getBytes());
+                    // written last and moved into place whole since it marks the configuration as finished
+                    var tmp = Paths.get("runs/run"+item.run+".bin.tmp");
+                    GARunsFile.write(item, tmp);
+                    Files.move(tmp, bin, StandardCopyOption.ATOMIC_MOVE);
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+                if(checkpoints != null) checkpoints.finishedConfiguration(item.run);
+            }).toList();
+        }
+
+        outputLatexStats(runs, Path.of("runs"));
+    }
 
-        outputLatexStats(runs);
+    /**
+     * Redo the statistical analysis over the binary run files previously saved in dir
+     */
+    private static void analyzeRuns(Path dir) throws IOException {
+        List<GARuns> runs;
+        try(var files = Files.list(dir)){
+            runs = files.filter(p -> p.getFileName().toString().endsWith(".bin"))
+                    .map(p -> {
+                        try {
+                            return new GARunsFile(p).summary();
+                        } catch (IOException e) {
+                            throw new RuntimeException(e);
+                        }
+                    })
+                    .sorted(Comparator.comparingInt(r -> r.run))
+                    .toList();
+        }
+        outputLatexStats(runs, dir);
     }
 
     /**
      * does a statistical analysis over the configuration runs and outputs latex tables for them
      * @param runs  A list of all the runs performed
+     * @param dir   The directory to write the tables to
      */
-    private static void outputLatexStats(List<GARuns> runs) throws IOException {
+    private static void outputLatexStats(List<GARuns> runs, Path dir) throws IOException {
         var runGens = new LatexTable(6);
         var runFitness = new LatexTable(6);
         var runParameters = new LatexTable(6);
@@ -125,12 +186,12 @@ class Main {
         zvalue.end();
         pvalue.end();
 
-        Files.write(Path.of("runs/run_params.tex"), runParameters.toString().getBytes());
-        Files.write(Path.of("runs/run_gens.tex"), runGens.toString().getBytes());
-        Files.write(Path.of("runs/run_fitness.tex"), runFitness.toString().getBytes());
-        Files.write(Path.of("runs/compare.tex"), sig.toString().getBytes());
-        Files.write(Path.of("runs/zvalues.tex"), zvalue.toString().getBytes());
-        Files.write(Path.of("runs/pvalues.tex"), pvalue.toString().getBytes());
+        Files.write(dir.resolve("run_params.tex"), runParameters.toString().getBytes());
+        Files.write(dir.resolve("run_gens.tex"), runGens.toString().getBytes());
+        Files.write(dir.resolve("run_fitness.tex"), runFitness.toString().getBytes());
+        Files.write(dir.resolve("compare.tex"), sig.toString().getBytes());
+        Files.write(dir.resolve("zvalues.tex"), zvalue.toString().getBytes());
+        Files.write(dir.resolve("pvalues.tex"), pvalue.toString().getBytes());
     }
 
     @SuppressWarnings("all")
@@ -145,9 +206,65 @@ class Main {
     }
 
     /**
-     * @return A stream of results for all the permutations of parameters given the arguments
+     * Everything the configurations of a sweep share: its options, the executors its seeds, generations and islands
+     * run on, and where results are kept besides runs/. Closing it waits for the executors to finish their work and
+     * shuts them down, then closes the coordinator and checkpoints.
+     */
+    static final class Sweep implements AutoCloseable {
+        final CliArgs cli;
+        /** runs every seed of every configuration */
+        final ExecutorService runner;
+        /** if not null each GA evaluates its generations in parallel on this pool */
+        final ForkJoinPool pool;
+        /** runs the islands of each seed when cli asks for the island model */
+        final ExecutorService islandPool;
+        /** if not null the islands of each seed are run by its workers */
+        final Coordinator coordinator;
+        /** if not null seeds are checkpointed to it, and resumed from it when cli says to resume */
+        final Checkpoints checkpoints;
+        /** if not null seeds it has the result of aren't run again, and the rest are added to it */
+        final ResultCache results;
+
+        Sweep(CliArgs cli, Coordinator coordinator, Checkpoints checkpoints, ResultCache results){
+            this.cli = cli;
+            this.coordinator = coordinator;
+            this.checkpoints = checkpoints;
+            this.results = results;
+            pool = cli.generationThreads == null ? null : new ForkJoinPool(cli.generationThreads);
+            // every seed of every configuration is queued up front so the next configuration can start while the
+            // slowest seeds of the last are still running
+            runner = cli.virtualCarriers != null
+                    ? virtualRunner(cli.virtualCarriers)
+                    : new ForkJoinPool(cli.runThreads == null ? Runtime.getRuntime().availableProcessors() : cli.runThreads);
+            // islands of the same seed only run in step with each other if they can all run at once
+            islandPool = cli.islands == null ? null : new ForkJoinPool(Math.max(cli.islands, Runtime.getRuntime().availableProcessors()));
+        }
+
+        @Override
+        public void close() throws IOException {
+            // seeds submit to the other pools, so the runner is finished first
+            shutdown(runner);
+            if(islandPool != null) shutdown(islandPool);
+            if(pool != null) shutdown(pool);
+            if(coordinator != null) coordinator.close();
+            if(checkpoints != null) checkpoints.close();
+        }
+
+        private static void shutdown(ExecutorService executor){
+            executor.shutdown();
+            try {
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    /**
+     * @return A stream of results for all the permutations of parameters given the arguments of sweep
      */
-    static Stream<GARuns> runConfigurations(CliArgs cli){
+    static Stream<GARuns> runConfigurations(Sweep sweep){
+        var cli = sweep.cli;
 
         var paramGen = Stream.of(new GAParameters(cli.problemSet))
                 .flatMap(flat(cli.crossoverKinds::stream, (t, v) -> t.crossover = v))
@@ -155,15 +272,51 @@ class Main {
             .flatMap(flat(cli.crossoverRates::stream, (t, v) -> t.crossoverRate = v))
             .flatMap(flat(cli.mutationRates::stream, (t, v) -> t.mutationRate = v))
             .flatMap(flat(cli.populationSizes::stream, (t, v) -> t.populationSize = v))
+            .flatMap(flat(cli.tournamentSizes::stream, (t, v) -> t.tournamentSize = v))
             .flatMap(flat(cli.initializerKinds::stream, (t, v) -> t.initialize = v))
             .flatMap(flat(cli.selectionKinds::stream, (t, v) -> t.select = v))
             .flatMap(flat(cli.fitnessKinds::stream, (t, v) -> t.fitness = v))
-            .flatMap(flat(cli.mutationKinds::stream, (t, v) -> t.mutate = v));
+            .flatMap(flat(cli.mutationKinds::stream, (t, v) -> t.mutate = v))
+            .flatMap(flat(cli.encodingKinds::stream, (t, v) -> t.encoding = v))
+            .flatMap(flat(cli.rngEngines::stream, (t, v) -> t.rng = v));
 
         var runNum = new AtomicInteger(1);
-        return paramGen
+        var configs = paramGen
                 .filter(v -> v.mutationRate != 0.01 || v.crossover == GAParameters.CrossoverKind.BestAttempt)
-                .map(params -> runConfiguration(params.clone(), runNum.getAndIncrement(), cli.generations, cli.seeds));
+                .map(params -> {
+                    var num = runNum.getAndIncrement();
+                    var event = new ConfigurationEvent();
+                    event.begin();
+                    var finished = cli.resume ? finishedConfiguration(params, num, cli) : null;
+                    var config = finished != null
+                            ? CompletableFuture.completedFuture(finished)
+                            : runConfiguration(params.clone(), num, sweep);
+                    return config.thenApply(runs -> {
+                        if(event.shouldCommit()){
+                            event.set(runs, cli.seeds.length, finished != null);
+                            event.commit();
+                        }
+                        return runs;
+                    });
+                })
+                .toList();
+        return configs.stream().map(CompletableFuture::join);
+    }
+
+    /**
+     * An executor which starts a virtual thread for every run, multiplexed over the provided number of carrier threads.
+     * The number of carriers is set by main before any thread starts.
+     * <br/>
+     * Virtual threads are looked up reflectively so this still builds on JDKs without them, in which case this falls
+     * back to a pool with carriers threads.
+     */
+    static ExecutorService virtualRunner(int carriers){
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            System.out.println("Virtual threads are not available on this JVM, using " + carriers + " platform threads instead");
+            return new ForkJoinPool(carriers);
+        }
     }
 
     static <T, V> Function<T, Stream<T>> flat(Supplier<Stream<V>> in, BiConsumer<T, V> setter){
@@ -174,39 +327,140 @@ class Main {
     }
 
     /**
-     * @return  The stats for the GA runs from the provided parameters and seeds
+     * @return The summary of configuration runNum if an earlier attempt at the sweep already finished it, or null
      */
-    static GARuns runConfiguration(GAParameters params, int runNum, int generations, long[] seeds){
+    static GARuns finishedConfiguration(GAParameters params, int runNum, CliArgs cli){
+        var file = Paths.get("runs/run" + runNum + ".bin");
+        if(!Files.exists(file)) return null;
+        try {
+            var runsFile = new GARunsFile(file);
+            if(!runsFile.params.toString().equals(params.toString()) || runsFile.seeds() != cli.seeds.length)
+                throw new RuntimeException(file + " is from a different sweep and can't be resumed");
+            var summary = runsFile.summary();
+            summary.params = params.clone();
+            System.out.println("Resumed finished run " + runNum);
+            return summary;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Queues a GA run for every seed of the sweep on its runner
+     * @return  The stats for the GA runs from the provided parameters and seeds, completed once every seed has finished
+     */
+    static CompletableFuture<GARuns> runConfiguration(GAParameters params, int runNum, Sweep sweep){
+        var cli = sweep.cli;
+        var checkpoints = sweep.checkpoints;
+        var results = sweep.results;
         var stats = new GARuns(params);
-        System.out.println("Started run " + runNum + " " + params);
-
-        var configs = Arrays.stream(seeds).mapToObj(seed -> new Util.Tuple<>(new GA(
-                seed, params.problemSet,
-                params.elitismRate, params.crossoverRate, params.mutationRate, params.populationSize,
-                params.initialize.initializer,
-                params.select.selector,
-                params.fitness.fitness,
-                params.mutate.fitness,
-                params.crossover.crossover,
-                null
-        ), stats.run(seed))). toList();
-        configs.stream().map(t -> new Thread(() -> {
-            var c = t.t1;
-            var run = t.t2;
-            var result = c.run(generations);
-            run.best = result.result;
-            run.finished = params.fitness.fitness.complete(run.best.fitness);
-            run.generationStats = result.stats;
-            System.out.println("\tFinished seed " + c.seed);
-        })).peek(Thread::start).toList().forEach(thread -> {
-            try {
-                thread.join();
-            } catch (InterruptedException e) {
-                throw new RuntimeException(e);
-            }
+        stats.run = runNum;
+        System.out.println("Queued run " + runNum + " " + params);
+
+        var seedRuns = Arrays.stream(cli.seeds).mapToObj(seed -> {
+            var run = stats.run(seed);
+            return CompletableFuture.runAsync(() -> {
+                var event = new SeedRunEvent();
+                event.begin();
+                if(checkpoints != null && checkpoints.loadFinished(params, runNum, run)){
+                    System.out.println("\tResumed finished seed " + seed + " of run " + runNum);
+                    commit(event, runNum, params, run, true);
+                    return;
+                }
+                if(results != null && results.load(params, run)){
+                    System.out.println("\tLoaded seed " + seed + " of run " + runNum + " from the result cache");
+                    if(checkpoints != null) checkpoints.finished(params, runNum, run);
+                    commit(event, runNum, params, run, true);
+                    return;
+                }
+                GAResult result;
+                Checkpoint resumed = null;
+                if(cli.islands == null){
+                    var ga = newGA(params, cli, seed, params.populationSize, sweep.pool);
+                    resumed = checkpoints == null ? null : checkpoints.attach(ga, params, runNum, seed);
+                    if(resumed != null)
+                        System.out.println("\tResumed seed " + seed + " of run " + runNum + " from generation " + resumed.generation);
+                    result = ga.run(cli.generations);
+                }else{
+                    result = runIslands(params, seed, sweep);
+                }
+                run.best = result.result;
+                run.finished = params.fitness.fitness.complete(run.best.fitness);
+                run.generationStats = result.stats;
+                run.stagnation = result.stagnation;
+                if(checkpoints != null) checkpoints.finished(params, runNum, run);
+                if(results != null) results.store(params, run);
+                commit(event, runNum, params, run, resumed != null);
+                System.out.println("\tFinished seed " + seed + " of run " + runNum);
+            }, sweep.runner);
+        }).toArray(CompletableFuture[]::new);
+
+        return CompletableFuture.allOf(seedRuns).thenApply(ignore -> {
+            averageRuns(stats);
+            stats.calculateFinalResults();
+            System.out.println("Finished run " + runNum);
+            return stats;
         });
-        var max = configs.stream().mapToInt(c -> c.t2.generationStats.size()).max().orElse(0);
-        var indecies = new int[configs.size()];
+    }
+
+    /**
+     * Commit the flight recorder event of a seed once its result is in, if it is being recorded
+     */
+    private static void commit(SeedRunEvent event, int runNum, GAParameters params, GARuns.GARun run, boolean resumed){
+        if(!event.shouldCommit()) return;
+        event.set(runNum, params, run, resumed);
+        event.commit();
+    }
+
+    /**
+     * Run a single seed of params as the island model, either in this process or on the workers of coordinator
+     */
+    static GAResult runIslands(GAParameters params, long seed, Sweep sweep){
+        var cli = sweep.cli;
+        var coordinator = sweep.coordinator;
+        if(coordinator == null){
+            return new Islands(
+                    seed, cli.islands, params.populationSize,
+                    cli.migrationTopology, cli.migrationInterval, cli.migrants, sweep.islandPool,
+                    params,
+                    (island, islandSeed, size) -> Islands.local(newGA(params, cli, islandSeed, size, sweep.pool))
+            ).run(cli.generations);
+        }
+        var remote = coordinator.acquire(cli.islands);
+        try {
+            return new Islands(
+                    seed, cli.islands, params.populationSize,
+                    cli.migrationTopology, cli.migrationInterval, cli.migrants, sweep.islandPool,
+                    params,
+                    (island, islandSeed, size) -> Coordinator.create(remote.get(island), params, islandSeed, size, cli.extendedStats, cli.phaseTimes, cli.fitnessCache, cli.greedyRatio, cli.localSearchMoves)
+            ).run(cli.generations);
+        } finally {
+            coordinator.release(remote);
+        }
+    }
+
+    /**
+     * @return A GA for a single seed of the configuration params with the per GA options from cli
+     */
+    static GA newGA(GAParameters params, CliArgs cli, long seed, int populationSize, ForkJoinPool pool){
+        var ga = params.create(seed, populationSize, pool);
+        ga.extendedStats = cli.extendedStats;
+        ga.phaseTimes = cli.phaseTimes;
+        if(cli.fitnessCache != null) ga.cache = new FitnessCache(cli.fitnessCache);
+        if(cli.stagnation != null) ga.stagnation = cli.stagnation.copy();
+        if(cli.greedyRatio != null) ga.greedyRatio = cli.greedyRatio;
+        if(cli.localSearchMoves != null) ga.localSearchMoves = cli.localSearchMoves;
+        return ga;
+    }
+
+    /**
+     * Averages the generation stats of every seed run into the stats averaged generation stats. Runs which finished
+     * early keep contributing their last generation.
+     */
+    static void averageRuns(GARuns stats){
+        var runs = stats.runs;
+        var max = runs.stream().mapToInt(r -> r.generationStats.size()).max().orElse(0);
+        var indecies = new int[runs.size()];
 
         for(int c = 0; c < max; c ++){
             var rawMin = 0.0;
@@ -216,10 +470,10 @@ class Main {
             var norMax = 0.0;
             var norAvg = 0.0;
 
-            var count = configs.size();
+            var count = runs.size();
             for(int i = 0; i < count; i ++){
-                var result = configs.get(i).t2.generationStats.get(indecies[i]);
-                indecies[i] = Math.min(indecies[i]+1, configs.get(i).t2.generationStats.size()-1);
+                var result = runs.get(i).generationStats.get(indecies[i]);
+                indecies[i] = Math.min(indecies[i]+1, runs.get(i).generationStats.size()-1);
 
                 rawMin += result.minRawFit;
                 rawMax += result.maxRawFit;
@@ -231,10 +485,5 @@ class Main {
             stats.averagedStats.add(new GenerationStat(norMin/count,norMax/count,norAvg/count,rawMin/count,rawMax/count,rawAvg/count));
 
         }
-
-        stats.run = runNum;
-        stats.calculateFinalResults();
-
-        return stats;
     }
-}
\ No newline at end of file
+}
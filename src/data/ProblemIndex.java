@@ -0,0 +1,189 @@
+package data;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * A dense integer view of a {@link ProblemSet} built once when the problem set is loaded.
+ * <br/>
+ * Professors and rooms are interned to small ids and every (day, hour) a course could occupy is mapped to a dense slot
+ * number, so conflicts can be found by indexing flat arrays instead of hashing {@link Timeslot}, {@link Room} and
+ * professor names.
+ */
+public final class ProblemIndex {
+    public final int professors;
+    public final int roomIds;
+    public final int slotsPerDay;
+    public final int slots;
+
+    /** the interned id of each room, rooms which are equal share the same id */
+    public final int[] roomId;
+    public final int[] roomCapacity;
+    /** the interned id of each courses professor */
+    public final int[] courseProfessor;
+    public final int[] courseStudents;
+    public final int[] courseDuration;
+    /** the dense slot of the first hour of each timeslot */
+    public final int[] timeslotSlot;
+
+    private final int minHour;
+    private final boolean[] validSlot;
+    private final ThreadLocal<Occupancy> scratch = ThreadLocal.withInitial(Occupancy::new);
+
+    ProblemIndex(ProblemSet problemSet){
+        var rooms = new HashMap<Room, Integer>();
+        roomId = new int[problemSet.rooms.size()];
+        roomCapacity = new int[problemSet.rooms.size()];
+        for(int i = 0; i < roomId.length; i ++){
+            var room = problemSet.rooms.get(i);
+            roomId[i] = rooms.computeIfAbsent(room, r -> rooms.size());
+            roomCapacity[i] = room.capacity;
+        }
+        roomIds = rooms.size();
+
+        var profs = new HashMap<String, Integer>();
+        courseProfessor = new int[problemSet.courses.size()];
+        courseStudents = new int[problemSet.courses.size()];
+        courseDuration = new int[problemSet.courses.size()];
+        var maxDuration = 0;
+        for(int i = 0; i < courseProfessor.length; i ++){
+            var course = problemSet.courses.get(i);
+            courseProfessor[i] = profs.computeIfAbsent(course.professor, p -> profs.size());
+            courseStudents[i] = course.students;
+            courseDuration[i] = course.duration;
+            maxDuration = Math.max(maxDuration, course.duration);
+        }
+        professors = profs.size();
+
+        // a course can run past the last listed hour of the day so leave room for the longest one
+        minHour = problemSet.timeslots.stream().mapToInt(t -> t.hour).min().orElse(0);
+        var maxHour = problemSet.timeslots.stream().mapToInt(t -> t.hour).max().orElse(0);
+        slotsPerDay = maxHour - minHour + Math.max(maxDuration, 1);
+        slots = slotsPerDay * Timeslot.Day.values().length;
+
+        validSlot = new boolean[slots];
+        timeslotSlot = new int[problemSet.timeslots.size()];
+        for(int i = 0; i < timeslotSlot.length; i ++){
+            timeslotSlot[i] = slot(problemSet.timeslots.get(i));
+            validSlot[timeslotSlot[i]] = true;
+        }
+    }
+
+    /**
+     * @return The dense slot the provided timeslot maps to
+     */
+    public int slot(Timeslot timeslot){
+        return timeslot.day.ordinal() * slotsPerDay + timeslot.hour - minHour;
+    }
+
+    /**
+     * @return If the slot corresponds to a timeslot in the problem set
+     */
+    public boolean validSlot(int slot){
+        return validSlot[slot];
+    }
+
+    /**
+     * @return An empty occupancy grid owned by the calling thread. it is reused by the next call on the same thread.
+     */
+    public Occupancy occupancy(){
+        return scratch.get().clear();
+    }
+
+    /**
+     * @return A new zeroed set of occupancy counts for this problem
+     */
+    public OccupancyCounts counts(){
+        return new OccupancyCounts();
+    }
+
+    /**
+     * Tracks which (room, slot) and (professor, slot) pairs are in use.
+     * <br/>
+     * Instead of zeroing the grid between uses each use gets a new epoch and a cell is only occupied if it was marked
+     * in the current epoch.
+     */
+    public final class Occupancy {
+        private final int[] rooms = new int[roomIds * slots];
+        private final int[] professors = new int[ProblemIndex.this.professors * slots];
+        private int epoch = 0;
+
+        private Occupancy clear(){
+            if(++epoch == 0){
+                Arrays.fill(rooms, 0);
+                Arrays.fill(professors, 0);
+                epoch = 1;
+            }
+            return this;
+        }
+
+        /**
+         * Mark the room as used at the slot
+         * @return If the room was already in use at that slot
+         */
+        public boolean occupyRoom(int roomId, int slot){
+            var cell = roomId * slots + slot;
+            var used = rooms[cell] == epoch;
+            rooms[cell] = epoch;
+            return used;
+        }
+
+        /**
+         * Mark the professor as busy at the slot
+         * @return If the professor was already busy at that slot
+         */
+        public boolean occupyProfessor(int professor, int slot){
+            var cell = professor * slots + slot;
+            var used = professors[cell] == epoch;
+            professors[cell] = epoch;
+            return used;
+        }
+    }
+
+    /**
+     * Counts how many times each (room, slot) and (professor, slot) pair is in use.
+     * <br/>
+     * Unlike {@link Occupancy} this can be kept around with a chromosome so the effect of changing a single gene can be
+     * found without going over every other gene again.
+     */
+    public final class OccupancyCounts {
+        private final int[] rooms = new int[roomIds * slots];
+        private final int[] professors = new int[ProblemIndex.this.professors * slots];
+
+        private OccupancyCounts(){}
+
+        /**
+         * @return New counts which start out the same as these
+         */
+        public OccupancyCounts copy(){
+            var copy = new OccupancyCounts();
+            System.arraycopy(rooms, 0, copy.rooms, 0, rooms.length);
+            System.arraycopy(professors, 0, copy.professors, 0, professors.length);
+            return copy;
+        }
+
+        public void addRoom(int roomId, int slot){
+            rooms[roomId * slots + slot] += 1;
+        }
+
+        public void addProfessor(int professor, int slot){
+            professors[professor * slots + slot] += 1;
+        }
+
+        public void removeRoom(int roomId, int slot){
+            rooms[roomId * slots + slot] -= 1;
+        }
+
+        public void removeProfessor(int professor, int slot){
+            professors[professor * slots + slot] -= 1;
+        }
+
+        public int room(int roomId, int slot){
+            return rooms[roomId * slots + slot];
+        }
+
+        public int professor(int professor, int slot){
+            return professors[professor * slots + slot];
+        }
+    }
+}
@@ -7,12 +7,14 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.stream.Stream;
 
 public class ProblemSet {
     public final ArrayList<Course> courses = new ArrayList<>();
     public final ArrayList<Room> rooms = new ArrayList<>();
     public final ArrayList<Timeslot> timeslots = new ArrayList<>();
+    public final ProblemIndex index;
 
     public ProblemSet(String problemSetDirectory) throws IOException {
         streamFile(problemSetDirectory + File.separator + "courses.txt")
@@ -24,6 +26,14 @@ public class ProblemSet {
         streamFile(problemSetDirectory + File.separator + "timeslots.txt")
                 .map(ProblemSet::parseTimeslot)
                 .forEach(timeslots::add);
+        index = new ProblemIndex(this);
+    }
+
+    public ProblemSet(List<Course> courses, List<Room> rooms, List<Timeslot> timeslots) {
+        this.courses.addAll(courses);
+        this.rooms.addAll(rooms);
+        this.timeslots.addAll(timeslots);
+        index = new ProblemIndex(this);
     }
 
     private static Stream<String[]> streamFile(String path) throws IOException {
@@ -0,0 +1,83 @@
+package ga;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The state of a {@link GA} part way through {@link GA#run(int)}, everything needed to carry on the run as if it had
+ * never stopped.
+ * <br/>
+ * Chromosomes and stats are immutable so taking a checkpoint only copies references, the genes are only written out
+ * later by {@link #write(DataOutputStream)} on whichever thread saves it.
+ */
+public final class Checkpoint {
+    /** the last generation evaluated */
+    public final int generation;
+    final Chromosome[] population;
+    final long[] rng;
+    final List<GenerationStat> stats;
+    final List<Stagnation.Event> stagnationEvents;
+    // the stagnation detectors window, unused if the GA has no detector
+    final double stagnationBest;
+    final double stagnationAverage;
+    final int stagnationLastImprovement;
+
+    Checkpoint(int generation, Chromosome[] population, long[] rng, List<GenerationStat> stats, List<Stagnation.Event> stagnationEvents, Stagnation stagnation){
+        this(
+                generation, population, rng, new ArrayList<>(stats), new ArrayList<>(stagnationEvents),
+                stagnation == null ? 0 : stagnation.best,
+                stagnation == null ? 0 : stagnation.average,
+                stagnation == null ? 0 : stagnation.lastImprovement
+        );
+    }
+
+    private Checkpoint(int generation, Chromosome[] population, long[] rng, List<GenerationStat> stats, List<Stagnation.Event> stagnationEvents,
+                       double stagnationBest, double stagnationAverage, int stagnationLastImprovement){
+        this.generation = generation;
+        this.population = population;
+        this.rng = rng;
+        this.stats = stats;
+        this.stagnationEvents = stagnationEvents;
+        this.stagnationBest = stagnationBest;
+        this.stagnationAverage = stagnationAverage;
+        this.stagnationLastImprovement = stagnationLastImprovement;
+    }
+
+    public void write(DataOutputStream out) throws IOException {
+        out.writeInt(generation);
+        out.writeInt(population.length);
+        for(var c : population) c.write(out);
+        out.writeInt(rng.length);
+        for(var state : rng) out.writeLong(state);
+        out.writeInt(stats.size());
+        for(var stat : stats) stat.write(out);
+        out.writeInt(stagnationEvents.size());
+        for(var event : stagnationEvents) event.write(out);
+        out.writeDouble(stagnationBest);
+        out.writeDouble(stagnationAverage);
+        out.writeInt(stagnationLastImprovement);
+    }
+
+    /**
+     * Read a checkpoint written by {@link #write(DataOutputStream)}
+     * @param ga scores the population, it should be the GA which will {@link GA#resume(Checkpoint)} from this
+     */
+    public static Checkpoint read(DataInputStream in, GA ga) throws IOException {
+        var generation = in.readInt();
+        var population = new Chromosome[in.readInt()];
+        for(int i = 0; i < population.length; i ++) population[i] = Chromosome.read(in, ga);
+        var rng = new long[in.readInt()];
+        for(int i = 0; i < rng.length; i ++) rng[i] = in.readLong();
+        var stats = new ArrayList<GenerationStat>();
+        for(int i = in.readInt(); i > 0; i --) stats.add(GenerationStat.read(in));
+        var stagnationEvents = new ArrayList<Stagnation.Event>();
+        for(int i = in.readInt(); i > 0; i --) stagnationEvents.add(Stagnation.Event.read(in));
+        return new Checkpoint(
+                generation, population, rng, stats, stagnationEvents,
+                in.readDouble(), in.readDouble(), in.readInt()
+        );
+    }
+}
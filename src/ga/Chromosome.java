@@ -1,15 +1,20 @@
 package ga;
 
 import data.Course;
+import data.ProblemIndex;
 import data.ProblemSet;
 import data.Room;
 import data.Timeslot;
 import util.Util;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.HashSet;
-import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
@@ -19,66 +24,265 @@ import java.util.stream.Stream;
  */
 public class Chromosome {
 
-    private final Gene[] genes;
+    /*
+     * Genes are stored as parallel columns rather than an array of Gene objects, gene i is
+     * (rooms[i], courses[i], timeslots[i]). This keeps a chromosome down to three primitive arrays
+     * so copying and crossing over genes is just an array copy.
+     *
+     * With the positional encoding gene i is always course i, so courses is null and only the rooms
+     * and timeslots columns are stored.
+     */
+    private final int[] rooms;
+    private final int[] courses;
+    private final int[] timeslots;
     public final double fitness;
     public final double rawFitness;
+    /**
+     * A Zobrist style hash of the genes, the xor of {@link #geneKey} over every gene. Operators update it from the
+     * parents hash by only xoring out and in the genes they change.
+     */
+    public final long hash;
     private final static boolean VERIFY_TIMESLOT = false;
 
-    private Chromosome(Gene[] genes, GA ga) {
-        this.genes = genes;
-        this.rawFitness = ga.fitness.calcRaw(this, ga.problemSet);
+    // built the first time this chromosome is the parent of a single gene mutation or a local search
+    private volatile ProblemIndex.OccupancyCounts counts;
+
+    private Chromosome(int[] rooms, int[] courses, int[] timeslots, long hash, GA ga) {
+        this(rooms, courses, timeslots, hash, null, -1, 0, ga);
+    }
+
+    /**
+     * Constructs a chromosome which is a copy of parent with only the provided gene changed, or with genes moved by
+     * {@link #localSearch(GA)} which changed the conflicts by conflictsDelta if gene is -1. Without a parent it is
+     * scored from scratch.
+     */
+    private Chromosome(int[] rooms, int[] courses, int[] timeslots, long hash, Chromosome parent, int gene, int conflictsDelta, GA ga) {
+        this.rooms = rooms;
+        this.courses = courses;
+        this.timeslots = timeslots;
+        this.hash = hash;
+        var cached = ga.cache == null ? Double.NaN : ga.cache.get(hash, rooms, courses, timeslots);
+        this.rawFitness = !Double.isNaN(cached) ? cached : ga.score(this, parent, gene, conflictsDelta);
         this.fitness = ga.fitness.normalize(this.rawFitness);
+        if(ga.cache != null && Double.isNaN(cached)) ga.cache.put(hash, rooms, courses, timeslots, rawFitness);
+    }
+
+    /**
+     * @return The key of a single gene at the provided position, see {@link #hash}
+     */
+    static long geneKey(int gene, int room, int course, int timeslot){
+        return GA.GaRNG.mix(GA.GaRNG.mix(((long) gene << 32) | room) ^ (((long) course << 32) | timeslot));
+    }
+
+    private static long hash(int[] rooms, int[] courses, int[] timeslots){
+        long hash = 0;
+        for(int i = 0; i < rooms.length; i ++) hash ^= geneKey(i, rooms[i], courses == null ? i : courses[i], timeslots[i]);
+        return hash;
+    }
+
+    private long geneKey(int gene){
+        return geneKey(gene, rooms[gene], courseIdx(gene), timeslots[gene]);
+    }
+
+    /**
+     * Constructs a chromosome with the provided genes, the arrays are owned by the chromosome afterwards. courses is
+     * null for the positional encoding.
+     */
+    public static Chromosome of(int[] rooms, int[] courses, int[] timeslots, GA ga){
+        return new Chromosome(rooms, courses, timeslots, hash(rooms, courses, timeslots), ga);
+    }
+
+    /**
+     * Write the genes as the number of genes followed by the rooms, courses and timeslots columns, without the courses
+     * when positional
+     */
+    public void write(DataOutputStream out) throws IOException {
+        out.writeInt(length());
+        for(var room : rooms) out.writeInt(room);
+        if(courses != null)
+            for(var course : courses) out.writeInt(course);
+        for(var timeslot : timeslots) out.writeInt(timeslot);
+    }
+
+    /**
+     * Read genes written by {@link #write(DataOutputStream)}
+     * @param ga scores the chromosome, it must have the same encoding as the GA it was written with
+     */
+    public static Chromosome read(DataInputStream in, GA ga) throws IOException {
+        var length = in.readInt();
+        var rooms = new int[length];
+        var courses = ga.positional() ? null : new int[length];
+        var timeslots = new int[length];
+        for(int i = 0; i < length; i ++) rooms[i] = in.readInt();
+        if(courses != null)
+            for(int i = 0; i < length; i ++) courses[i] = in.readInt();
+        for(int i = 0; i < length; i ++) timeslots[i] = in.readInt();
+        return of(rooms, courses, timeslots, ga);
     }
 
     /**
      * Constructs a completely randomized chromosome
      */
     public static Chromosome random(GA ga){
-        var genes = new Gene[ga.problemSet.courses.size()];
-        for(int i = 0; i < genes.length; i ++){
-            genes[i] = new Gene(
-                    ga.rng.randomInt(ga.problemSet.rooms.size()),
-                    ga.rng.randomInt(ga.problemSet.courses.size()),
-                    ga.rng.randomInt(ga.problemSet.timeslots.size())
-            );
+        var length = ga.problemSet.courses.size();
+        var rooms = new int[length];
+        var courses = ga.positional() ? null : new int[length];
+        var timeslots = new int[length];
+        // drawn in one batch, interleaved gene by gene as they always were
+        var roomCount = ga.problemSet.rooms.size();
+        var timeslotCount = ga.problemSet.timeslots.size();
+        var draws = new int[length * (courses == null ? 2 : 3)];
+        if(courses == null) ga.rng.randomInts(draws, roomCount, timeslotCount);
+        else ga.rng.randomInts(draws, roomCount, ga.problemSet.courses.size(), timeslotCount);
+        for(int i = 0, d = 0; i < length; i ++){
+            rooms[i] = draws[d ++];
+            if(courses != null) courses[i] = draws[d ++];
+            timeslots[i] = draws[d ++];
+        }
+        return new Chromosome(rooms, courses, timeslots, hash(rooms, courses, timeslots), ga);
+    }
+
+    /**
+     * Constructs a chromosome greedily with every course scheduled once, at its own gene. The largest courses are placed
+     * first, each into the smallest room it fits in at the first timeslot where neither the room nor the professor is
+     * busy yet. Courses of the same size, rooms of the same capacity and the timeslot the search starts from are
+     * shuffled with the GA's generator so every call gives a different chromosome.
+     * <br/>
+     * A course which fits no room goes into the largest rooms instead, and one that can't be placed without a conflict
+     * goes to a random timeslot of the first room it was tried in.
+     */
+    public static Chromosome greedy(GA ga){
+        var index = ga.problemSet.index;
+        var length = ga.problemSet.courses.size();
+        var timeslotCount = ga.problemSet.timeslots.size();
+        var rooms = new int[length];
+        var courses = ga.positional() ? null : new int[length];
+        var timeslots = new int[length];
+
+        var courseOrder = shuffledBy(length, course -> -index.courseStudents[course], ga);
+        var roomOrder = shuffledBy(index.roomCapacity.length, room -> index.roomCapacity[room], ga);
+
+        var used = index.counts();
+        var candidates = new int[roomOrder.length];
+        for(var course : courseOrder){
+            var students = index.courseStudents[course];
+            var candidateCount = 0;
+            for(var r : roomOrder){
+                if(index.roomCapacity[r] >= students) candidates[candidateCount++] = r;
+            }
+            if(candidateCount == 0){
+                for(int r = roomOrder.length - 1; r >= 0; r --) candidates[candidateCount++] = roomOrder[r];
+            }
+
+            var start = ga.rng.randomInt(timeslotCount);
+            var room = candidates[0];
+            var timeslot = -1;
+            for(int r = 0; r < candidateCount && timeslot == -1; r ++){
+                for(int t = 0; t < timeslotCount && timeslot == -1; t ++){
+                    var candidate = (start + t) % timeslotCount;
+                    if(free(used, index, course, candidates[r], candidate)){
+                        room = candidates[r];
+                        timeslot = candidate;
+                    }
+                }
+            }
+            if(timeslot == -1) timeslot = ga.rng.randomInt(timeslotCount);
+
+            rooms[course] = room;
+            if(courses != null) courses[course] = course;
+            timeslots[course] = timeslot;
+            var slot = index.timeslotSlot[timeslot];
+            for(int s = slot; s < slot + index.courseDuration[course]; s ++){
+                used.addRoom(index.roomId[room], s);
+                used.addProfessor(index.courseProfessor[course], s);
+            }
+        }
+        return new Chromosome(rooms, courses, timeslots, hash(rooms, courses, timeslots), ga);
+    }
+
+    /**
+     * @return If course can be held in room at timeslot without either being double booked
+     */
+    private static boolean free(ProblemIndex.OccupancyCounts used, ProblemIndex index, int course, int room, int timeslot){
+        var slot = index.timeslotSlot[timeslot];
+        for(int s = slot; s < slot + index.courseDuration[course]; s ++){
+            if(used.room(index.roomId[room], s) != 0) return false;
+            if(used.professor(index.courseProfessor[course], s) != 0) return false;
         }
-        return new Chromosome(genes, ga);
+        return true;
+    }
+
+    /**
+     * @return The numbers [0, count) shuffled with the GA's generator and then stably sorted by key, so numbers with
+     * equal keys are left in a random order
+     */
+    private static int[] shuffledBy(int count, IntUnaryOperator key, GA ga){
+        var order = new int[count];
+        for(int i = 0; i < count; i ++) order[i] = i;
+        for(int i = count - 1; i > 0; i --){
+            var j = ga.rng.randomInt(i + 1);
+            var tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+        // the key in the high half and the shuffled position in the low half, so sorting is stable
+        var packed = new long[count];
+        for(int i = 0; i < count; i ++) packed[i] = ((long) key.applyAsInt(order[i]) << 32) | i;
+        Arrays.sort(packed);
+        var sorted = new int[count];
+        for(int i = 0; i < count; i ++) sorted[i] = order[(int) packed[i]];
+        return sorted;
+    }
+
+    /**
+     * @return The number of genes in this chromosome
+     */
+    public int length(){
+        return rooms.length;
+    }
+
+    public int roomIdx(int gene){
+        return rooms[gene];
+    }
+
+    public int courseIdx(int gene){
+        return courses == null ? gene : courses[gene];
+    }
+
+    public int timeslotIdx(int gene){
+        return timeslots[gene];
     }
 
     /**
      * @return A stream of all the genes in this chromosome
      */
     public Stream<Gene> genes(){
-        return Arrays.stream(this.genes);
+        return IntStream.range(0, length()).mapToObj(i -> new Gene(rooms[i], courseIdx(i), timeslots[i]));
     }
 
     /**
      * A weighted sum of the conflicts present in this chromosome
      */
     public int conflicts(ProblemSet problemSet){
+        var index = problemSet.index;
+        var occupancy = index.occupancy();
         int conflicts = 0;
 
-        HashSet<Util.Tuple<Timeslot, Room>> roomUsage = new HashSet<>();
-        HashSet<Util.Tuple<Timeslot, String>> profSched = new HashSet<>();
-
-        for(var item : this.genes){
-            var room = problemSet.rooms.get(item.roomIdx);
-            var timeslot = problemSet.timeslots.get(item.timeslotIdx);
-            var course = problemSet.courses.get(item.courseIdx);
+        for(int gene = 0; gene < length(); gene ++){
+            var course = courseIdx(gene);
+            var room = rooms[gene];
+            var slot = index.timeslotSlot[timeslots[gene]];
 
-            if(course.students > room.capacity) conflicts += VERIFY_TIMESLOT?3:4;
+            if(index.courseStudents[course] > index.roomCapacity[room]) conflicts += VERIFY_TIMESLOT?3:4;
 
-            for(int i = timeslot.hour; i < timeslot.hour + course.duration; i ++){
-                var currTimeslot = new Timeslot(timeslot.day, i);
-                var conflict = !profSched.add(new Util.Tuple<>(currTimeslot, course.professor));
-                if(conflict) conflicts += 1;
-
-                conflict = !roomUsage.add(new Util.Tuple<>(currTimeslot, room));
-                if(conflict) conflicts += 2;
+            var professor = index.courseProfessor[course];
+            var roomId = index.roomId[room];
+            for(int s = slot; s < slot + index.courseDuration[course]; s ++){
+                if(occupancy.occupyProfessor(professor, s)) conflicts += 1;
+                if(occupancy.occupyRoom(roomId, s)) conflicts += 2;
 
                 if(VERIFY_TIMESLOT){
-                    conflict = !problemSet.timeslots.contains(currTimeslot);
-                    if(conflict) conflicts += 3;
+                    if(!index.validSlot(s)) conflicts += 3;
                 }
             }
         }
@@ -86,100 +290,368 @@ public class Chromosome {
         return conflicts;
     }
 
+    /**
+     * A lower bound on {@link #conflicts(ProblemSet)} of every possible chromosome for the problem set.
+     * <br/>
+     * Each kind of conflict is bounded on its own, the sum of the bounds holds since the kinds are counted separately.
+     * When every gene can pick any course only what no choice of courses avoids is counted:
+     * <ul>
+     * <li>if no course fits in any room every gene is over capacity</li>
+     * <li>every gene occupies at least the shortest duration, but there are only so many hours each room and
+     * professor can be used at before they are double booked</li>
+     * </ul>
+     * When positional every course is scheduled exactly once, so each course too large for every room is over capacity,
+     * each professor is double booked for the hours they teach beyond the slots their courses can reach, and the rooms
+     * for the hours of all courses beyond the slots every room can offer.
+     */
+    public static int conflictsLowerBound(ProblemSet problemSet, boolean positional){
+        var index = problemSet.index;
+        var genes = index.courseDuration.length;
+        if(genes == 0) return 0;
+        var maxDuration = Arrays.stream(index.courseDuration).max().orElse(0);
+        var slots = reachableSlots(index, maxDuration);
+
+        if(positional){
+            var maxCapacity = Arrays.stream(index.roomCapacity).max().orElse(Integer.MAX_VALUE);
+            var capacity = 0;
+            var hours = 0;
+            var professorHours = new int[index.professors];
+            var professorDuration = new int[index.professors];
+            for(int course = 0; course < genes; course ++){
+                if(index.courseStudents[course] > maxCapacity) capacity += VERIFY_TIMESLOT?3:4;
+                var professor = index.courseProfessor[course];
+                hours += index.courseDuration[course];
+                professorHours[professor] += index.courseDuration[course];
+                professorDuration[professor] = Math.max(professorDuration[professor], index.courseDuration[course]);
+            }
+            var professor = 0;
+            for(int p = 0; p < index.professors; p ++)
+                professor += Math.max(0, professorHours[p] - reachableSlots(index, professorDuration[p]));
+            var room = Math.max(0, hours - index.roomIds * slots);
+            return capacity + professor + 2 * room;
+        }
+
+        var fits = false;
+        for(int course = 0; course < genes && !fits; course ++){
+            for(int room = 0; room < index.roomCapacity.length && !fits; room ++){
+                fits = index.courseStudents[course] <= index.roomCapacity[room];
+            }
+        }
+        var capacity = fits || index.roomCapacity.length == 0 ? 0 : genes * (VERIFY_TIMESLOT?3:4);
+
+        var minDuration = Arrays.stream(index.courseDuration).min().orElse(0);
+        var hours = genes * minDuration;
+        var professor = Math.max(0, hours - index.professors * slots);
+        var room = Math.max(0, hours - index.roomIds * slots);
+        return capacity + professor + 2 * room;
+    }
+
+    /**
+     * @return The number of slots a course lasting duration could be running at
+     */
+    private static int reachableSlots(ProblemIndex index, int duration){
+        var reachable = new boolean[index.slots];
+        for(var slot : index.timeslotSlot) Arrays.fill(reachable, slot, Math.min(index.slots, slot + duration), true);
+        var slots = 0;
+        for(var r : reachable) if(r) slots += 1;
+        return slots;
+    }
+
+    /**
+     * The difference between {@link #conflicts(ProblemSet)} of this chromosome and parent, which differs from this
+     * chromosome only in the provided gene. This only looks at the hours the old and new gene occupy.
+     */
+    public int conflictsDelta(Chromosome parent, int gene, ProblemSet problemSet){
+        return moveDelta(
+                problemSet.index, parent.counts(problemSet),
+                parent.courseIdx(gene), parent.rooms[gene], parent.timeslots[gene],
+                courseIdx(gene), rooms[gene], timeslots[gene]
+        );
+    }
+
+    /**
+     * The difference in conflicts from replacing a gene holding oldCourse in oldRoom at oldTimeslot with one holding
+     * course in room at timeslot, where counts are those of the chromosome with the old gene
+     */
+    private static int moveDelta(ProblemIndex index, ProblemIndex.OccupancyCounts counts,
+                                 int oldCourse, int oldRoomIdx, int oldTimeslot,
+                                 int course, int roomIdx, int timeslot){
+        var conflicts = 0;
+
+        // take away what the old gene contributed
+        var oldRoom = index.roomId[oldRoomIdx];
+        var oldProfessor = index.courseProfessor[oldCourse];
+        var oldSlot = index.timeslotSlot[oldTimeslot];
+        var oldEnd = oldSlot + index.courseDuration[oldCourse];
+        if(index.courseStudents[oldCourse] > index.roomCapacity[oldRoomIdx]) conflicts -= VERIFY_TIMESLOT?3:4;
+        for(int s = oldSlot; s < oldEnd; s ++){
+            if(counts.professor(oldProfessor, s) > 1) conflicts -= 1;
+            if(counts.room(oldRoom, s) > 1) conflicts -= 2;
+            if(VERIFY_TIMESLOT){
+                if(!index.validSlot(s)) conflicts -= 3;
+            }
+        }
+
+        // and add what the new gene contributes, the counts still include the old gene so it must be skipped
+        var room = index.roomId[roomIdx];
+        var professor = index.courseProfessor[course];
+        var slot = index.timeslotSlot[timeslot];
+        if(index.courseStudents[course] > index.roomCapacity[roomIdx]) conflicts += VERIFY_TIMESLOT?3:4;
+        for(int s = slot; s < slot + index.courseDuration[course]; s ++){
+            var overlapsOld = s >= oldSlot && s < oldEnd;
+            var profCount = counts.professor(professor, s) - (overlapsOld && professor == oldProfessor ? 1 : 0);
+            if(profCount > 0) conflicts += 1;
+            var roomCount = counts.room(room, s) - (overlapsOld && room == oldRoom ? 1 : 0);
+            if(roomCount > 0) conflicts += 2;
+            if(VERIFY_TIMESLOT){
+                if(!index.validSlot(s)) conflicts += 3;
+            }
+        }
+
+        return conflicts;
+    }
+
+    /**
+     * @return How many times each room and professor is used at every slot by this chromosome
+     */
+    private ProblemIndex.OccupancyCounts counts(ProblemSet problemSet){
+        var counts = this.counts;
+        if(counts != null) return counts;
+
+        var index = problemSet.index;
+        counts = index.counts();
+        for(int gene = 0; gene < length(); gene ++) place(counts, index, courseIdx(gene), rooms[gene], timeslots[gene], true);
+        this.counts = counts;
+        return counts;
+    }
+
+    /**
+     * Add or remove a gene holding course in room at timeslot from counts
+     */
+    private static void place(ProblemIndex.OccupancyCounts counts, ProblemIndex index, int course, int room, int timeslot, boolean add){
+        var roomId = index.roomId[room];
+        var professor = index.courseProfessor[course];
+        var slot = index.timeslotSlot[timeslot];
+        for(int s = slot; s < slot + index.courseDuration[course]; s ++){
+            if(add){
+                counts.addProfessor(professor, s);
+                counts.addRoom(roomId, s);
+            }else{
+                counts.removeProfessor(professor, s);
+                counts.removeRoom(roomId, s);
+            }
+        }
+    }
+
+    /**
+     * @return If a gene holding course in room at timeslot is over capacity or double booked, given counts which include it
+     */
+    private static boolean conflicting(ProblemIndex.OccupancyCounts counts, ProblemIndex index, int course, int room, int timeslot){
+        if(index.courseStudents[course] > index.roomCapacity[room]) return true;
+        var roomId = index.roomId[room];
+        var professor = index.courseProfessor[course];
+        var slot = index.timeslotSlot[timeslot];
+        for(int s = slot; s < slot + index.courseDuration[course]; s ++){
+            if(counts.professor(professor, s) > 1 || counts.room(roomId, s) > 1) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Bounded first improvement hill climbing. Starting from a random gene every gene in a conflict is moved to the
+     * first room and timeslot, tried in order from a random pair, that lowers the conflicts. Moves are scored by their
+     * delta against a copy of this chromosome's cached occupancy counts kept up to date as moves are made, so each one
+     * only looks at the hours the gene occupies, and the improved chromosome is scored from this one's fitness plus the
+     * deltas of the moves made.
+     * The climb stops once a pass over the genes improves nothing or {@link GA#localSearchMoves} moves have been tried.
+     * <br/>
+     * Courses never move between genes so this works the same for either encoding.
+     * @return The improved chromosome, or this if no move improved it
+     */
+    public Chromosome localSearch(GA ga){
+        var index = ga.problemSet.index;
+        var timeslotCount = ga.problemSet.timeslots.size();
+        var pairs = ga.problemSet.rooms.size() * timeslotCount;
+        var counts = counts(ga.problemSet).copy();
+
+        var r = rooms.clone();
+        var t = timeslots.clone();
+        var hash = this.hash;
+        var moved = false;
+        var conflictsDelta = 0;
+        var moves = ga.localSearchMoves;
+        var start = ga.rng.randomInt(length());
+        var improved = true;
+        while(improved && moves > 0){
+            improved = false;
+            for(int i = 0; i < length() && moves > 0; i ++){
+                var gene = (start + i) % length();
+                var course = courseIdx(gene);
+                if(!conflicting(counts, index, course, r[gene], t[gene])) continue;
+
+                var offset = ga.rng.randomInt(pairs);
+                for(int p = 0; p < pairs && moves > 0; p ++){
+                    var room = (offset + p) % pairs / timeslotCount;
+                    var timeslot = (offset + p) % pairs % timeslotCount;
+                    if(room == r[gene] && timeslot == t[gene]) continue;
+                    moves --;
+                    var delta = moveDelta(index, counts, course, r[gene], t[gene], course, room, timeslot);
+                    if(delta >= 0) continue;
+
+                    place(counts, index, course, r[gene], t[gene], false);
+                    place(counts, index, course, room, timeslot, true);
+                    hash ^= geneKey(gene, r[gene], course, t[gene]) ^ geneKey(gene, room, course, timeslot);
+                    r[gene] = room;
+                    t[gene] = timeslot;
+                    conflictsDelta += delta;
+                    moved = true;
+                    improved = true;
+                    break;
+                }
+            }
+        }
+        if(!moved) return this;
+        // the courses column is never written to once a chromosome owns it, so it can be shared
+        return new Chromosome(r, courses, t, hash, this, -1, conflictsDelta, ga);
+    }
+
     /**
      * Crate a new chromosome which has a single gene in it randomly mutated
      */
     public Chromosome singleGeneMutation(GA ga){
-        var copy = genes.clone();
-        copy[ga.rng.randomInt(copy.length)] = new Gene(
-                ga.rng.randomInt(ga.problemSet.rooms.size()),
-                ga.rng.randomInt(ga.problemSet.courses.size()),
-                ga.rng.randomInt(ga.problemSet.timeslots.size())
-        );
-        return new Chromosome(copy, ga);
+        var r = rooms.clone();
+        var c = copy(courses);
+        var t = timeslots.clone();
+        var gene = ga.rng.randomInt(r.length);
+        r[gene] = ga.rng.randomInt(ga.problemSet.rooms.size());
+        if(c != null) c[gene] = ga.rng.randomInt(ga.problemSet.courses.size());
+        t[gene] = ga.rng.randomInt(ga.problemSet.timeslots.size());
+        var hash = this.hash ^ geneKey(gene) ^ geneKey(gene, r[gene], c == null ? gene : c[gene], t[gene]);
+        return new Chromosome(r, c, t, hash, this, gene, 0, ga);
     }
 
     /**
      * Perform one point crossover on this and another chromosome creating two children as a result
      */
     public Util.Tuple<Chromosome, Chromosome> onePointCrossover(Chromosome other, GA ga){
-        var g1 = this.genes.clone();
-        var g2 = other.genes.clone();
-        var index = ga.rng.randomInt(Math.min(g1.length, g2.length));
-        for(int i = index; i < Math.min(g1.length, g2.length); i++){
-            var tmp = g1[i];
-            g1[i] = g2[i];
-            g2[i] = tmp;
-        }
-        return new Util.Tuple<>(new Chromosome(g1, ga), new Chromosome(g2, ga));
+        var length = Math.min(this.length(), other.length());
+        var index = ga.rng.randomInt(length);
+        // both children differ from their first parent by the same swapped tail
+        long swapped = 0;
+        for(int i = index; i < length; i ++) swapped ^= this.geneKey(i) ^ other.geneKey(i);
+        return new Util.Tuple<>(
+                new Chromosome(
+                        spliceTail(this.rooms, other.rooms, index, length),
+                        spliceTail(this.courses, other.courses, index, length),
+                        spliceTail(this.timeslots, other.timeslots, index, length),
+                        this.hash ^ swapped,
+                        ga
+                ),
+                new Chromosome(
+                        spliceTail(other.rooms, this.rooms, index, length),
+                        spliceTail(other.courses, this.courses, index, length),
+                        spliceTail(other.timeslots, this.timeslots, index, length),
+                        other.hash ^ swapped,
+                        ga
+                )
+        );
     }
 
+    /**
+     * @return a copy of head with the range [from, to) replaced by the same range from tail, null for an absent column
+     */
+    private static int[] spliceTail(int[] head, int[] tail, int from, int to){
+        if(head == null) return null;
+        var result = head.clone();
+        System.arraycopy(tail, from, result, from, to - from);
+        return result;
+    }
+
+    /**
+     * @return a copy of column, null for an absent column
+     */
+    private static int[] copy(int[] column){
+        return column == null ? null : column.clone();
+    }
 
     /**
      * Perform uniform crossover on this and another chromosome creating two children as a result
      */
     public Util.Tuple<Chromosome, Chromosome> uniformCrossover(Chromosome other, GA ga){
-        var g1 = this.genes.clone();
-        var g2 = other.genes.clone();
-        for(int i = 0; i < Math.min(g1.length, g2.length); i++){
-            if(ga.rng.percent(0.5)){
-                var tmp = g1[i];
-                g1[i] = g2[i];
-                g2[i] = tmp;
+        var r1 = this.rooms.clone();
+        var c1 = copy(this.courses);
+        var t1 = this.timeslots.clone();
+        var r2 = other.rooms.clone();
+        var c2 = copy(other.courses);
+        var t2 = other.timeslots.clone();
+        long swapped = 0;
+        var mask = new double[Math.min(r1.length, r2.length)];
+        ga.rng.randomDoubles(mask);
+        for(int i = 0; i < mask.length; i++){
+            if(mask[i] < 0.5){
+                swapped ^= this.geneKey(i) ^ other.geneKey(i);
+                r1[i] = other.rooms[i];
+                t1[i] = other.timeslots[i];
+                r2[i] = this.rooms[i];
+                t2[i] = this.timeslots[i];
+                if(c1 != null){
+                    c1[i] = other.courses[i];
+                    c2[i] = this.courses[i];
+                }
             }
         }
-        return new Util.Tuple<>(new Chromosome(g1, ga), new Chromosome(g2, ga));
+        return new Util.Tuple<>(new Chromosome(r1, c1, t1, this.hash ^ swapped, ga), new Chromosome(r2, c2, t2, other.hash ^ swapped, ga));
     }
 
     /**
      * Perform best attempt crossover on this and another chromosome creating two children as a result
      */
     public Util.Tuple<Chromosome, Chromosome> bestAttemptCrossover(Chromosome other, GA ga){
-        var c1 = this.genes.clone();
-        var c2 = other.genes.clone();
+        var r1 = this.rooms.clone();
+        var c1 = copy(this.courses);
+        var t1 = this.timeslots.clone();
+        var r2 = other.rooms.clone();
+        var c2 = copy(other.courses);
+        var t2 = other.timeslots.clone();
 
         HashSet<Util.Tuple<Timeslot, Room>> roomUsage1 = new HashSet<>();
         HashSet<Util.Tuple<Timeslot, String>> profSched1 = new HashSet<>();
         HashSet<Util.Tuple<Timeslot, Room>> roomUsage2 = new HashSet<>();
         HashSet<Util.Tuple<Timeslot, String>> profSched2 = new HashSet<>();
 
-        var g1 = new Util.QuaTuple<Gene, Room, Timeslot, Course>();
-        var g2 = new Util.QuaTuple<Gene, Room, Timeslot, Course>();
-        BiConsumer<Gene, Util.QuaTuple<Gene, Room, Timeslot, Course>> set = (g, r) -> {
-            r.t1 = g;
-            r.t2 = ga.problemSet.rooms.get(g.roomIdx);
-            r.t3 = ga.problemSet.timeslots.get(g.timeslotIdx);
-            r.t4 = ga.problemSet.courses.get(g.courseIdx);
-        };
-        BiFunction< Util.QuaTuple<Gene, Room, Timeslot, Course>,  Util.QuaTuple<Gene, Room, Timeslot, Course>, Integer> costFunc = (G1, G2) -> {
+        var g1 = new Placement();
+        var g2 = new Placement();
+        BiFunction<Placement, Placement, Integer> costFunc = (G1, G2) -> {
             var cost = 0;
-            if(G1.t4.students > G1.t2.capacity) {
+            if(G1.course.students > G1.room.capacity) {
                 cost += 1;
             }
-            if(G2.t4.students > G2.t2.capacity) {
+            if(G2.course.students > G2.room.capacity) {
                 cost += 1;
             }
-            for(int j = G1.t3.hour; j < G1.t3.hour + G1.t4.duration; j ++){
-                var currTimeslot = new Timeslot(G1.t3.day, j);
-                cost += profSched1.contains(new Util.Tuple<>(currTimeslot, G1.t4.professor))?1:0;
-                cost += roomUsage1.contains(new Util.Tuple<>(currTimeslot, G1.t2))?1:0;
+            for(int j = G1.timeslot.hour; j < G1.timeslot.hour + G1.course.duration; j ++){
+                var currTimeslot = new Timeslot(G1.timeslot.day, j);
+                cost += profSched1.contains(new Util.Tuple<>(currTimeslot, G1.course.professor))?1:0;
+                cost += roomUsage1.contains(new Util.Tuple<>(currTimeslot, G1.room))?1:0;
                 if(VERIFY_TIMESLOT)
                     cost += ga.problemSet.timeslots.contains(currTimeslot)?0:1;
             }
-            for(int j = G2.t3.hour; j < G2.t3.hour + G2.t4.duration; j ++){
-                var currTimeslot = new Timeslot(G2.t3.day, j);
-                cost += profSched2.contains(new Util.Tuple<>(currTimeslot, G2.t4.professor))?1:0;
-                cost += roomUsage2.contains(new Util.Tuple<>(currTimeslot, G2.t2))?1:0;
+            for(int j = G2.timeslot.hour; j < G2.timeslot.hour + G2.course.duration; j ++){
+                var currTimeslot = new Timeslot(G2.timeslot.day, j);
+                cost += profSched2.contains(new Util.Tuple<>(currTimeslot, G2.course.professor))?1:0;
+                cost += roomUsage2.contains(new Util.Tuple<>(currTimeslot, G2.room))?1:0;
                 if(VERIFY_TIMESLOT)
                     cost += ga.problemSet.timeslots.contains(currTimeslot)?0:1;
             }
 
             return cost;
         };
-        var length = Math.min(c1.length, c2.length);
+        var length = Math.min(r1.length, r2.length);
         for(int i = 0; i != length; i ++){
-            set.accept(c1[i], g1);
-            set.accept(c2[length-1-i], g2);
+            // genes are paired with the opposite end of the other parent, unless their position is their course
+            var pair = c1 == null ? i : length-1-i;
+            g1.load(this, i, ga.problemSet);
+            g2.load(other, pair, ga.problemSet);
 
             int nonSwapCost = costFunc.apply(g1, g2);
             int swapCost = costFunc.apply(g2, g1);
@@ -190,21 +662,51 @@ public class Chromosome {
                 g2 = tmp;
             }
 
-            c1[i] = g1.t1;
-            c2[length-1-i] = g2.t1;
+            g1.store(r1, c1, t1, i);
+            g2.store(r2, c2, t2, pair);
 
-            for(int j = g1.t3.hour; j < g1.t3.hour + g1.t4.duration; j ++){
-                var currTimeslot = new Timeslot(g1.t3.day, j);
-                profSched1.add(new Util.Tuple<>(currTimeslot, g1.t4.professor));
-                roomUsage1.add(new Util.Tuple<>(currTimeslot, g1.t2));
+            for(int j = g1.timeslot.hour; j < g1.timeslot.hour + g1.course.duration; j ++){
+                var currTimeslot = new Timeslot(g1.timeslot.day, j);
+                profSched1.add(new Util.Tuple<>(currTimeslot, g1.course.professor));
+                roomUsage1.add(new Util.Tuple<>(currTimeslot, g1.room));
             }
 
-            for(int j = g2.t3.hour; j < g2.t3.hour + g2.t4.duration; j ++){
-                var currTimeslot = new Timeslot(g2.t3.day, j);
-                profSched2.add(new Util.Tuple<>(currTimeslot, g2.t4.professor));
-                roomUsage2.add(new Util.Tuple<>(currTimeslot, g2.t2));
+            for(int j = g2.timeslot.hour; j < g2.timeslot.hour + g2.course.duration; j ++){
+                var currTimeslot = new Timeslot(g2.timeslot.day, j);
+                profSched2.add(new Util.Tuple<>(currTimeslot, g2.course.professor));
+                roomUsage2.add(new Util.Tuple<>(currTimeslot, g2.room));
             }
         }
-        return new Util.Tuple<>(new Chromosome(c1, ga), new Chromosome(c2, ga));
+        return new Util.Tuple<>(
+                new Chromosome(r1, c1, t1, hash(r1, c1, t1), ga),
+                new Chromosome(r2, c2, t2, hash(r2, c2, t2), ga)
+        );
+    }
+
+    /**
+     * A single gene pulled out of a chromosome along with the problem set data it refers to
+     */
+    private static final class Placement {
+        int roomIdx;
+        int courseIdx;
+        int timeslotIdx;
+        Room room;
+        Timeslot timeslot;
+        Course course;
+
+        void load(Chromosome c, int gene, ProblemSet problemSet){
+            roomIdx = c.rooms[gene];
+            courseIdx = c.courseIdx(gene);
+            timeslotIdx = c.timeslots[gene];
+            room = problemSet.rooms.get(roomIdx);
+            timeslot = problemSet.timeslots.get(timeslotIdx);
+            course = problemSet.courses.get(courseIdx);
+        }
+
+        void store(int[] rooms, int[] courses, int[] timeslots, int gene){
+            rooms[gene] = roomIdx;
+            if(courses != null) courses[gene] = courseIdx;
+            timeslots[gene] = timeslotIdx;
+        }
     }
 }
@@ -0,0 +1,127 @@
+package ga;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of the raw fitness of chromosomes which have already been scored, looked up by
+ * {@link Chromosome#hash} so a child with the exact same genes as an earlier chromosome can reuse its fitness instead
+ * of being scored again. Only the hash, gene arrays and raw fitness are kept, not the chromosomes themselves and
+ * anything they have built.
+ * <br/>
+ * The cache is split into sets of {@link #WAYS} entries, a hash can only be stored in the set its low bits pick. When a
+ * set is full the entry to replace is picked with the CLOCK algorithm, entries which were hit since the hand last
+ * passed them get a second chance.
+ * <br/>
+ * A hash match is always confirmed by comparing the genes so a collision can never change a result.
+ * <br/>
+ * The workers of a parallel generation share the cache, so sets are locked in {@link #STRIPES} stripes rather than
+ * the whole cache at once and the counters are adders.
+ */
+public final class FitnessCache {
+    private static final int WAYS = 8;
+    private static final int STRIPES = 64;
+
+    private final int setMask;
+    private final long[] keys;
+    // the gene columns of each entry, rooms is null if the entry is empty and courses with the positional encoding
+    private final int[][] rooms;
+    private final int[][] courses;
+    private final int[][] timeslots;
+    private final double[] rawFitness;
+    private final boolean[] referenced;
+    private final byte[] hands;
+    private final Object[] locks;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param capacity the most fitnesses to keep, rounded down to a power of two with a minimum of {@link #WAYS}
+     */
+    public FitnessCache(int capacity){
+        var sets = Integer.highestOneBit(Math.max(1, capacity / WAYS));
+        setMask = sets - 1;
+        keys = new long[sets * WAYS];
+        rooms = new int[sets * WAYS][];
+        courses = new int[sets * WAYS][];
+        timeslots = new int[sets * WAYS][];
+        rawFitness = new double[sets * WAYS];
+        referenced = new boolean[sets * WAYS];
+        hands = new byte[sets];
+        locks = new Object[Math.min(sets, STRIPES)];
+        for(int i = 0; i < locks.length; i ++) locks[i] = new Object();
+    }
+
+    private int set(long hash){
+        return (int) hash & setMask;
+    }
+
+    private Object lock(int set){
+        return locks[set & (locks.length - 1)];
+    }
+
+    /**
+     * @return The raw fitness of a previously scored chromosome with the provided hash and genes, or NaN if there isn't
+     * one
+     */
+    double get(long hash, int[] rooms, int[] courses, int[] timeslots){
+        var set = set(hash);
+        var base = set * WAYS;
+        synchronized(lock(set)){
+            for(int i = base; i < base + WAYS; i ++){
+                if(this.rooms[i] != null && keys[i] == hash
+                        && Arrays.equals(this.rooms[i], rooms)
+                        && Arrays.equals(this.courses[i], courses)
+                        && Arrays.equals(this.timeslots[i], timeslots)){
+                    referenced[i] = true;
+                    hits.increment();
+                    return rawFitness[i];
+                }
+            }
+        }
+        misses.increment();
+        return Double.NaN;
+    }
+
+    /**
+     * Remember the raw fitness of the chromosome with the provided hash and genes, evicting another one from its set
+     * if it is full. The gene arrays must not change afterwards, which they don't since chromosomes are immutable.
+     */
+    void put(long hash, int[] rooms, int[] courses, int[] timeslots, double rawFitness){
+        var set = set(hash);
+        var base = set * WAYS;
+        synchronized(lock(set)){
+            var slot = -1;
+            for(int i = base; i < base + WAYS && slot == -1; i ++){
+                if(this.rooms[i] == null) slot = i;
+            }
+            while(slot == -1){
+                var i = base + hands[set];
+                hands[set] = (byte) ((hands[set] + 1) % WAYS);
+                if(referenced[i]) referenced[i] = false;
+                else slot = i;
+            }
+            keys[slot] = hash;
+            this.rooms[slot] = rooms;
+            this.courses[slot] = courses;
+            this.timeslots[slot] = timeslots;
+            this.rawFitness[slot] = rawFitness;
+            referenced[slot] = false;
+        }
+    }
+
+    /**
+     * @return The total number of lookups which found a fitness
+     */
+    public long hits(){
+        return hits.sum();
+    }
+
+    /**
+     * @return The total number of lookups which didn't find a fitness
+     */
+    public long misses(){
+        return misses.sum();
+    }
+}
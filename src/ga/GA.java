@@ -3,8 +3,13 @@ package ga;
 import data.ProblemSet;
 import ga.functional.*;
 
+import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
 
 public class GA {
 
@@ -13,6 +18,7 @@ public class GA {
     private final double crossoverRate;
     private final double mutationRate;
     private final int populationSize;
+    public final int tournamentSize;
 
     private Chromosome[] prevPopulation;
     private Chromosome[] population;
@@ -25,10 +31,39 @@ public class GA {
     private final Mutator mutate;
     private final Crossover crossover;
     public final Comparator<Chromosome> cmp;
+    /** the best raw fitness possible on the problem set, see {@link Fitness#lowerBound(ProblemSet, GAParameters.EncodingKind)} */
+    public final double lowerBound;
+    public final GAParameters.EncodingKind encoding;
 
     private final Consumer<GenerationStat> statConsumer;
+    private final ForkJoinPool pool;
 
-    private final ArrayList<GenerationStat> stats = new ArrayList<>();
+    private final ArrayList<GenerationStat> stats;
+    private GenerationStat.Accumulator accumulator;
+
+    /** if percentiles and the number of distinct fitness values are recorded every generation */
+    public boolean extendedStats = false;
+    /** if not null chromosomes with the same genes as one already scored reuse its fitness */
+    public FitnessCache cache = null;
+    /** the chance the mixed initializer creates a greedy rather than random individual */
+    public double greedyRatio = 0.5;
+    /** the most moves {@link Chromosome#localSearch(GA)} tries on a single individual */
+    public int localSearchMoves = 200;
+    /** if not null it is checked after every generation of {@link #run(int)} */
+    public Stagnation stagnation = null;
+    private final ArrayList<Stagnation.Event> stagnationEvents = new ArrayList<>();
+    private long cacheHits;
+    private long cacheMisses;
+    /** if not null it is given a {@link Checkpoint} every {@link #checkpointInterval} generations of {@link #run(int)} */
+    public Consumer<Checkpoint> checkpoints = null;
+    public int checkpointInterval = 0;
+    private Checkpoint resumeFrom;
+    /** if the time spent in each phase of every generation is recorded with its stats, see {@link PhaseTimes} */
+    public boolean phaseTimes = false;
+    // null unless phase times are on or being recorded by JFR, shared with every view so work done on the pool is counted
+    private PhaseTimes.Recorder recorder;
+    // the generation in progress, null unless a flight recording has generation events enabled
+    private GenerationEvent event;
 
     public GA(
             long seed,
@@ -37,14 +72,18 @@ public class GA {
             double crossoverRate,
             double mutationRate,
             int populationSize,
+            int tournamentSize,
             Initializer initialize,
             Selector select,
             Fitness fitness,
             Mutator mutate,
             Crossover crossover,
-            Consumer<GenerationStat> statConsumer
+            GAParameters.EncodingKind encoding,
+            GaRNG.Engine engine,
+            Consumer<GenerationStat> statConsumer,
+            ForkJoinPool pool
     ) {
-        this.rng = new GaRNG(seed);
+        this.rng = new GaRNG(engine, seed);
         this.seed = seed;
         prevPopulation = new Chromosome[populationSize];
         population = new Chromosome[populationSize];
@@ -52,14 +91,74 @@ public class GA {
         this.crossoverRate = crossoverRate;
         this.mutationRate = mutationRate;
         this.populationSize = populationSize;
+        this.tournamentSize = tournamentSize;
         this.problemSet = problemSet;
         this.initialize = initialize;
         this.select = select;
         this.fitness = fitness;
         this.cmp = fitness.rank(problemSet);
+        this.encoding = encoding;
+        this.lowerBound = fitness.lowerBound(problemSet, encoding);
         this.mutate = mutate;
         this.crossover = crossover;
         this.statConsumer = statConsumer;
+        this.pool = pool;
+        this.stats = new ArrayList<>();
+    }
+
+    /**
+     * A view of ga which shares everything with it except that it draws random numbers from rng
+     */
+    private GA(GA ga, GaRNG rng){
+        this.rng = rng;
+        this.seed = ga.seed;
+        this.prevPopulation = ga.prevPopulation;
+        this.population = ga.population;
+        this.elitismRate = ga.elitismRate;
+        this.crossoverRate = ga.crossoverRate;
+        this.mutationRate = ga.mutationRate;
+        this.populationSize = ga.populationSize;
+        this.tournamentSize = ga.tournamentSize;
+        this.problemSet = ga.problemSet;
+        this.initialize = ga.initialize;
+        this.select = ga.select;
+        this.fitness = ga.fitness;
+        this.cmp = ga.cmp;
+        this.encoding = ga.encoding;
+        this.lowerBound = ga.lowerBound;
+        this.mutate = ga.mutate;
+        this.crossover = ga.crossover;
+        this.statConsumer = ga.statConsumer;
+        this.pool = ga.pool;
+        this.stats = ga.stats;
+        this.cache = ga.cache;
+        this.greedyRatio = ga.greedyRatio;
+        this.localSearchMoves = ga.localSearchMoves;
+        this.phaseTimes = ga.phaseTimes;
+        this.recorder = ga.recorder;
+    }
+
+    private static final Method IS_VIRTUAL = isVirtualMethod();
+
+    /**
+     * @return If the current thread is a virtual thread. Thread.isVirtual is looked up reflectively so this still builds
+     * on JDKs without virtual threads, where it is always false.
+     */
+    private static boolean onVirtualThread(){
+        if(IS_VIRTUAL == null) return false;
+        try {
+            return (boolean) IS_VIRTUAL.invoke(Thread.currentThread());
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static Method isVirtualMethod(){
+        try {
+            return Thread.class.getMethod("isVirtual");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
     }
 
     /**
@@ -67,52 +166,286 @@ public class GA {
      * @return the calculated statistics as well as the best solution found
      */
     public GAResult run(int maxGens){
+        var virtual = onVirtualThread();
+        Chromosome popBest;
+        int from;
+        if(resumeFrom != null){
+            popBest = restore(resumeFrom);
+            from = resumeFrom.generation + 1;
+        }else{
+            popBest = start();
+            from = 1;
+            if(finished(popBest)) return new GAResult(stats, popBest, stagnationEvents);
+        }
+        for(int i = from; i <= maxGens; i ++){
+            popBest = step(i);
+            if(finished(popBest)) return new GAResult(stats, popBest, stagnationEvents);
+            var reason = stagnation == null ? null : stagnation.check(i, stats.get(stats.size() - 1));
+            if(reason != null){
+                stagnationEvents.add(new Stagnation.Event(i, reason, stagnation.policy));
+                if(stagnation.policy == Stagnation.Policy.Stop) break;
+                popBest = restart(i);
+                stagnation.reset(i);
+            }
+            if(checkpoints != null && checkpointInterval > 0 && i % checkpointInterval == 0 && i < maxGens)
+                checkpoints.accept(new Checkpoint(i, prevPopulation.clone(), rng.state(), stats, stagnationEvents, stagnation));
+            // give other runs sharing this carrier thread a turn
+            if(virtual) Thread.yield();
+        }
+        return new GAResult(stats, popBest, stagnationEvents);
+    }
+
+    /**
+     * @return If gene i of every chromosome is always course i
+     */
+    public boolean positional(){
+        return encoding == GAParameters.EncodingKind.Positional;
+    }
+
+    /**
+     * Carry on from checkpoint, which was taken from a GA with the same parameters and seed, the next time
+     * {@link #run(int)} is called instead of starting over
+     */
+    public void resume(Checkpoint checkpoint){
+        this.resumeFrom = checkpoint;
+    }
+
+    /**
+     * Put the population, generator, stats and stagnation detector back the way they were when checkpoint was taken
+     * @return the best individual of the restored population
+     */
+    private Chromosome restore(Checkpoint checkpoint){
+        accumulator = new GenerationStat.Accumulator(cmp, extendedStats, Math.min(elitismRate, populationSize));
+        System.arraycopy(checkpoint.population, 0, prevPopulation, 0, populationSize);
+        stats.clear();
+        stats.addAll(checkpoint.stats);
+        stagnationEvents.clear();
+        stagnationEvents.addAll(checkpoint.stagnationEvents);
+        rng.restore(checkpoint.rng);
+        if(stagnation != null){
+            stagnation.best = checkpoint.stagnationBest;
+            stagnation.average = checkpoint.stagnationAverage;
+            stagnation.lastImprovement = checkpoint.stagnationLastImprovement;
+        }
+        if(cache != null){
+            cacheHits = cache.hits();
+            cacheMisses = cache.misses();
+        }
+        // the same order the population was evaluated in so the same elites are picked
+        accumulator.reset(populationSize);
+        for(var c : prevPopulation) accumulator.add(c);
+        return accumulator.best();
+    }
+
+    /**
+     * @return If best is a complete solution or can't be improved on any more
+     */
+    public boolean finished(Chromosome best){
+        return fitness.reached(best.fitness, lowerBound);
+    }
+
+    /**
+     * Create and evaluate the initial population
+     * @return the best individual of the initial population
+     */
+    public Chromosome start(){
+        accumulator = new GenerationStat.Accumulator(cmp, extendedStats, Math.min(elitismRate, populationSize));
+        begin();
+        var time = now();
         initialize();
-        var popBest = evaluate();
-        if(fitness.complete(popBest.fitness)) return new GAResult(stats, popBest);
-        for(int i = 1; i <= maxGens; i ++){
-            elitism();
-            selection();
-            crossover();
-            mutation();
-            popBest = evaluate();
-            if(fitness.complete(popBest.fitness)) return new GAResult(stats, popBest);
+        lap(PhaseTimes.Phase.Initialize, time);
+        return evaluate();
+    }
+
+    /**
+     * Evolve and evaluate a single generation, {@link #start()} must have been called first
+     * @return the best individual of the new generation
+     */
+    public Chromosome step(int generation){
+        begin();
+        var time = now();
+        elitism();
+        time = lap(PhaseTimes.Phase.Elitism, time);
+        selection();
+        time = lap(PhaseTimes.Phase.Selection, time);
+        if(pool == null) crossover();
+        else parallelCrossover();
+        time = lap(PhaseTimes.Phase.Crossover, time);
+        if(pool == null) mutation();
+        else parallelMutation();
+        lap(PhaseTimes.Phase.Mutation, time);
+        return evaluate();
+    }
+
+    /**
+     * Start a generation, its phases are timed if they are wanted in its stats or by a flight recording
+     */
+    private void begin(){
+        event = new GenerationEvent();
+        if(event.isEnabled()) event.begin();
+        else event = null;
+        if(!phaseTimes && event == null) recorder = null;
+        else if(recorder == null) recorder = new PhaseTimes.Recorder();
+    }
+
+    /**
+     * @return The time to measure a phase from, only read if phases are being timed
+     */
+    private long now(){
+        return recorder == null ? 0 : System.nanoTime();
+    }
+
+    /**
+     * Add the time since start to phase if phases are being timed
+     * @return The start of the next phase
+     */
+    private long lap(PhaseTimes.Phase phase, long start){
+        return recorder == null ? 0 : recorder.lap(phase, start);
+    }
+
+    /**
+     * Score c, which is parent with only the provided gene changed if parent isn't null, or with genes moved by
+     * {@link Chromosome#localSearch(GA)} changing its conflicts by conflictsDelta if gene is -1. This is where every
+     * chromosome not found in the cache is scored, so it is timed and counted here.
+     */
+    double score(Chromosome c, Chromosome parent, int gene, int conflictsDelta){
+        if(recorder == null) return rawFitness(c, parent, gene, conflictsDelta);
+        var start = System.nanoTime();
+        var raw = rawFitness(c, parent, gene, conflictsDelta);
+        recorder.evaluated(System.nanoTime() - start);
+        return raw;
+    }
+
+    private double rawFitness(Chromosome c, Chromosome parent, int gene, int conflictsDelta){
+        if(parent == null) return fitness.calcRaw(c, problemSet);
+        if(gene < 0) return fitness.calcRawMoved(c, parent, conflictsDelta, problemSet);
+        return fitness.calcRawMutated(c, parent, gene, problemSet);
+    }
+
+    /**
+     * @return The stats of every generation evaluated so far
+     */
+    public ArrayList<GenerationStat> stats(){
+        return stats;
+    }
+
+    /**
+     * @return The best count individuals of the last evaluated population, best first
+     */
+    public Chromosome[] emigrants(int count){
+        var best = first(count, true);
+        var emigrants = new Chromosome[best.length];
+        for(int i = 0; i < best.length; i ++) emigrants[i] = prevPopulation[best[i]];
+        return emigrants;
+    }
+
+    /**
+     * @return The indices of the best, or worst, count individuals of the last evaluated population in that order, of
+     * equally good individuals the earlier one comes first. Like the elites of {@link GenerationStat.Accumulator} they
+     * are kept in a bounded heap rather than sorting the whole population.
+     */
+    private int[] first(int count, boolean best){
+        count = Math.min(count, populationSize);
+        // the last of the first individuals seen so far is at the root
+        var heap = new int[count];
+        var size = 0;
+        for(int i = 0; i < populationSize && count > 0; i ++){
+            if(size < count){
+                heap[size] = i;
+                for(var c = size ++; c > 0 && before(heap[(c - 1) / 2], heap[c], best); c = (c - 1) / 2)
+                    swap(heap, c, (c - 1) / 2);
+            }else if(before(i, heap[0], best)){
+                heap[0] = i;
+                siftDown(heap, size, best);
+            }
+        }
+        // move the root to the back until they are in order
+        for(var end = size - 1; end > 0; end --){
+            swap(heap, 0, end);
+            siftDown(heap, end, best);
         }
-        return new GAResult(stats, popBest);
+        return heap;
+    }
+
+    private boolean before(int a, int b, boolean best){
+        var order = cmp.compare(prevPopulation[a], prevPopulation[b]);
+        return (best ? order > 0 : order < 0) || (order == 0 && a < b);
+    }
+
+    private void siftDown(int[] heap, int size, boolean best){
+        for(var i = 0; ; ){
+            var last = i;
+            for(var child = 2 * i + 1; child <= 2 * i + 2 && child < size; child ++){
+                if(before(heap[last], heap[child], best)) last = child;
+            }
+            if(last == i) return;
+            swap(heap, i, last);
+            i = last;
+        }
+    }
+
+    private static void swap(int[] heap, int i, int j){
+        var tmp = heap[i];
+        heap[i] = heap[j];
+        heap[j] = tmp;
+    }
+
+    /**
+     * Replace the worst individuals of the last evaluated population with immigrants from another population. The
+     * population is scanned again so the immigrants can become elites, this doesn't record a generation stat.
+     * @return the best individual of the population after the immigrants arrived
+     */
+    public Chromosome immigrate(Chromosome[] immigrants){
+        var worstFirst = first(immigrants.length, false);
+        for(int i = 0; i < worstFirst.length; i ++)
+            prevPopulation[worstFirst[i]] = immigrants[i];
+        accumulator.reset(populationSize);
+        for(var c : prevPopulation) accumulator.add(c);
+        return accumulator.best();
+    }
+
+    /**
+     * Replace everything but the elites, or at least the best individual, of the last evaluated population with newly
+     * initialized individuals. Like {@link #immigrate(Chromosome[])} this doesn't record a generation stat.
+     * @return the best individual of the restarted population
+     */
+    private Chromosome restart(int generation){
+        var time = now();
+        var kept = emigrants(Math.max(1, Math.min(elitismRate, populationSize)));
+        System.arraycopy(kept, 0, prevPopulation, 0, kept.length);
+        if(pool == null){
+            for(int i = kept.length; i < populationSize; i ++)
+                prevPopulation[i] = initialize.initialize(this);
+        }else{
+            var rngs = split(populationSize - kept.length);
+            inPool(rngs.length, i -> prevPopulation[kept.length + i] = initialize.initialize(new GA(this, rngs[i])));
+        }
+        // counted towards the next generation since a restart doesn't record a stat of its own
+        lap(PhaseTimes.Phase.Initialize, time);
+        accumulator.reset(populationSize);
+        for(var c : prevPopulation) accumulator.add(c);
+        return accumulator.best();
     }
 
     /**
      * Initialize the population with the provided algorithm
      */
     private void initialize(){
-        for(int i = 0; i < populationSize; i ++)
-            population[i] = initialize.initialize(this);
+        if(pool == null){
+            for(int i = 0; i < populationSize; i ++)
+                population[i] = initialize.initialize(this);
+        }else{
+            var rngs = split(populationSize);
+            inPool(rngs.length, i -> population[i] = initialize.initialize(new GA(this, rngs[i])));
+        }
     }
 
     /**
-     * Perform elitism and select the best k members from the previous population and place them in the new population
+     * Perform elitism and place the best k members of the previous population, which were found while it was evaluated,
+     * in the new population
      */
     private void elitism(){
-        var idxFrom = Math.min(elitismRate, populationSize);
-        for(int i = 0; i < idxFrom; i ++) population[i] = null;
-        outer:
-        for(int popIdx = 0; popIdx < populationSize; popIdx ++){
-            for(int elitIdx = 0; elitIdx < idxFrom; elitIdx ++){
-                // if empty insert there
-                if(population[elitIdx]==null){
-                    population[elitIdx] = prevPopulation[popIdx];
-                    continue outer;
-                }
-                // if the new value is larger than the current elite value insert it moving everything else down
-                if(cmp.compare(prevPopulation[popIdx], population[elitIdx])>0){
-                    for(int insertIdx = idxFrom-1; insertIdx != elitIdx; insertIdx --){
-                        population[insertIdx] = population[insertIdx-1];
-                    }
-                    population[elitIdx] = prevPopulation[popIdx];
-                    continue outer;
-                }
-            }
-        }
+        accumulator.elites(population);
     }
 
     /**
@@ -120,8 +453,9 @@ public class GA {
      */
     private void selection(){
         var idxFrom = Math.min(elitismRate, populationSize);
+        var select = this.select.prepare(prevPopulation, this);
         for(int i = idxFrom; i < populationSize; i ++){
-            population[i] = select.select(prevPopulation, this);
+            population[i] = select.select(prevPopulation, i, this);
         }
     }
 
@@ -134,6 +468,7 @@ public class GA {
             if(rng.percent(crossoverRate)){
                 var i2 = rng.randomInt(populationSize-idxFrom)+idxFrom;
                 var result = crossover.crossover(population[i], population[i2], this);
+                if(recorder != null) recorder.crossover();
                 population[i] = result.t1;
                 population[i2] = result.t2;
             }
@@ -147,32 +482,204 @@ public class GA {
     private void mutation(){
         var idxFrom = Math.min(elitismRate, populationSize);
         for(int i = idxFrom; i < populationSize; i ++){
-            if(rng.percent(mutationRate))
+            if(rng.percent(mutationRate)){
                 population[i] = mutate.mutate(population[i], this);
+                if(recorder != null) recorder.mutation();
+            }
+        }
+    }
+
+    /**
+     * {@link #crossover()} on the pool. Whether each slot is crossed and with which partner is drawn up front in the same
+     * order as the serial operator, along with a generator split off for every crossover. A crossover waits for the
+     * last earlier one which touched either of its slots, so crossovers of disjoint slots run together in waves and the
+     * result does not depend on how many threads the pool has.
+     */
+    private void parallelCrossover(){
+        var idxFrom = Math.min(elitismRate, populationSize);
+        var first = new int[populationSize - idxFrom];
+        var second = new int[first.length];
+        var rngs = new GaRNG[first.length];
+        var waves = new int[first.length];
+        var lastWave = new int[populationSize];
+        int count = 0, waveCount = 0;
+        for(int i = idxFrom; i < populationSize; i ++){
+            if(rng.percent(crossoverRate)){
+                var i2 = rng.randomInt(populationSize-idxFrom)+idxFrom;
+                var wave = Math.max(lastWave[i], lastWave[i2]) + 1;
+                lastWave[i] = lastWave[i2] = wave;
+                waveCount = Math.max(waveCount, wave);
+                first[count] = i;
+                second[count] = i2;
+                rngs[count] = rng.split();
+                waves[count ++] = wave;
+            }
+        }
+        // the crossovers of a wave, in the order they were drawn
+        var start = new int[waveCount + 2];
+        for(int k = 0; k < count; k ++) start[waves[k] + 1] ++;
+        for(int w = 1; w < start.length; w ++) start[w] += start[w - 1];
+        var order = new int[count];
+        for(int k = 0; k < count; k ++) order[start[waves[k]] ++] = k;
+        for(int w = 1, end = 0; w <= waveCount; w ++){
+            var begin = end;
+            end = start[w];
+            inPool(end - begin, j -> {
+                var k = order[begin + j];
+                var result = crossover.crossover(population[first[k]], population[second[k]], new GA(this, rngs[k]));
+                if(recorder != null) recorder.crossover();
+                population[first[k]] = result.t1;
+                population[second[k]] = result.t2;
+            });
+        }
+    }
+
+    /**
+     * {@link #mutation()} on the pool, which slots are mutated is drawn up front in the same order as the serial
+     * operator along with a generator split off for every mutation
+     */
+    private void parallelMutation(){
+        var idxFrom = Math.min(elitismRate, populationSize);
+        var slots = new int[populationSize - idxFrom];
+        var rngs = new GaRNG[slots.length];
+        var count = 0;
+        for(int i = idxFrom; i < populationSize; i ++){
+            if(rng.percent(mutationRate)){
+                slots[count] = i;
+                rngs[count ++] = rng.split();
+            }
         }
+        inPool(count, k -> {
+            population[slots[k]] = mutate.mutate(population[slots[k]], new GA(this, rngs[k]));
+            if(recorder != null) recorder.mutation();
+        });
+    }
+
+    /**
+     * @return count generators split from this GA's one after another, for tasks run on the pool
+     */
+    private GaRNG[] split(int count){
+        var rngs = new GaRNG[count];
+        for(int i = 0; i < count; i ++) rngs[i] = rng.split();
+        return rngs;
+    }
+
+    /**
+     * Run task for every index in [0, count) on the pool and wait for them all to finish
+     */
+    private void inPool(int count, IntConsumer task){
+        pool.submit(() -> IntStream.range(0, count).parallel().forEach(task)).join();
     }
 
     /**
      * Evaluate and report the statistics for this population. return the individual with the highest fitness.
      */
     private Chromosome evaluate(){
-        var stat = new GenerationStat(population);
+        var time = now();
+        accumulator.reset(populationSize);
+        for(var c : population) accumulator.add(c);
+        var stat = cache == null
+                ? accumulator.stat(-1, -1)
+                : accumulator.stat(cache.hits() - cacheHits, cache.misses() - cacheMisses);
+        if(cache != null){
+            cacheHits = cache.hits();
+            cacheMisses = cache.misses();
+        }
+        PhaseTimes phases = null;
+        if(recorder != null){
+            lap(PhaseTimes.Phase.Evaluate, time);
+            phases = recorder.take();
+            if(phaseTimes){
+                stat = stat.withPhases(phases);
+                PhaseMetrics.INSTANCE.add(phases);
+            }
+        }
+        if(event != null){
+            event.set(seed, stats.size(), stat, phases);
+            event.commit();
+            event = null;
+        }
         if(statConsumer != null)
             statConsumer.accept(stat);
         stats.add(stat);
         var tmp = prevPopulation;
         prevPopulation = population;
         population = tmp;
-        return Arrays.stream(prevPopulation).max(cmp).orElse(null);
+        return accumulator.best();
     }
 
     /**
-     * A random number generator with wrapper functions for the GA
+     * The random numbers a GA draws, from one of several engines. Every engine is deterministic given its seed.
      */
     public static final class GaRNG{
-        Random rand;
+
+        /**
+         * Every engine gives the same numbers as the JDK generator it is named after, they are implemented here so
+         * their state can be checkpointed.
+         */
+        public enum Engine {
+            /** the same numbers java.util.Random gives, without its atomic updates, so earlier runs can be reproduced */
+            Legacy,
+            /** java.util.SplittableRandom */
+            Splittable,
+            L64X128Mix,
+            Xoshiro256PlusPlus,
+            Xoroshiro128PlusPlus;
+
+            Generator create(long seed){
+                return switch(this){
+                    case Legacy -> new Lcg(seed);
+                    case Splittable -> new SplitMix(seed);
+                    case L64X128Mix -> new L64X128(seed);
+                    case Xoshiro256PlusPlus -> new Xoshiro256(seed);
+                    case Xoroshiro128PlusPlus -> new Xoroshiro128(seed);
+                };
+            }
+        }
+
+        Generator rand;
+        public final long seed;
+        public final Engine engine;
+
         public GaRNG(long seed){
-            rand = new Random(seed);
+            this(Engine.Legacy, seed);
+        }
+
+        public GaRNG(Engine engine, long seed){
+            this.seed = seed;
+            this.engine = engine;
+            rand = engine.create(seed);
+        }
+
+        /**
+         * @return A new generator for an island, thread or individual, seeded from the next number of this one so it
+         * only depends on what was drawn from this one before. It is the same generator as one created from its
+         * {@link #seed}, which is how remote islands recreate theirs.
+         */
+        public GaRNG split(){
+            return new GaRNG(engine, mix(rand.nextLong()));
+        }
+
+        /**
+         * @return The state of the engine
+         */
+        public long[] state(){
+            return rand.state();
+        }
+
+        /**
+         * Put the engine back in a state returned by {@link #state()}
+         */
+        public void restore(long[] state){
+            if(state.length != rand.state().length)
+                throw new RuntimeException("Not the state of a " + engine + " engine");
+            rand.restore(state);
+        }
+
+        static long mix(long z){
+            z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+            z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+            return z ^ (z >>> 31);
         }
 
         public int randomInt(int max){
@@ -182,5 +689,319 @@ public class GA {
         public boolean percent(double percent){
             return rand.nextDouble() < percent;
         }
+
+        public double randomDouble(){
+            return rand.nextDouble();
+        }
+
+        /**
+         * Fill out with random ints, out[i] in [0, bounds[i % bounds.length]). These are the same numbers as drawing
+         * them one at a time with {@link #randomInt(int)}, but drawn in one batch by the engine.
+         */
+        public void randomInts(int[] out, int... bounds){
+            for(var bound : bounds) if(bound <= 0) throw new IllegalArgumentException("bound must be positive");
+            rand.nextInts(out, bounds);
+        }
+
+        /**
+         * Fill out with random doubles in [0, 1), the same numbers as that many calls to {@link #randomDouble()} but
+         * drawn in one batch by the engine
+         */
+        public void randomDoubles(double[] out){
+            rand.nextDoubles(out);
+        }
+
+        /**
+         * A generator whose whole state is a few longs, so it can be checkpointed
+         */
+        abstract static class Generator implements RandomGenerator {
+            abstract long[] state();
+
+            abstract void restore(long[] state);
+
+            void nextInts(int[] out, int[] bounds){
+                for(int i = 0, b = 0; i < out.length; i ++, b = b + 1 == bounds.length ? 0 : b + 1)
+                    out[i] = nextInt(bounds[b]);
+            }
+
+            void nextDoubles(double[] out){
+                for(int i = 0; i < out.length; i ++) out[i] = nextDouble();
+            }
+        }
+
+        /**
+         * The linear congruential generator of java.util.Random with its seed in a plain field. Only the methods GaRNG
+         * uses, and nextLong, match java.util.Random.
+         */
+        private static final class Lcg extends Generator {
+            private static final long MULTIPLIER = 0x5DEECE66DL;
+            private static final long ADDEND = 0xBL;
+            private static final long MASK = (1L << 48) - 1;
+            private long seed;
+
+            private Lcg(long seed){
+                this.seed = (seed ^ MULTIPLIER) & MASK;
+            }
+
+            @Override
+            long[] state(){
+                return new long[]{seed};
+            }
+
+            @Override
+            void restore(long[] state){
+                seed = state[0];
+            }
+
+            private int next(int bits){
+                seed = (seed * MULTIPLIER + ADDEND) & MASK;
+                return (int) (seed >>> (48 - bits));
+            }
+
+            @Override
+            public int nextInt(){
+                return next(32);
+            }
+
+            @Override
+            public int nextInt(int bound){
+                if(bound <= 0) throw new IllegalArgumentException("bound must be positive");
+                var r = next(31);
+                var m = bound - 1;
+                if((bound & m) == 0){
+                    r = (int) ((bound * (long) r) >> 31);
+                }else{
+                    for(int u = r; u - (r = u % bound) + m < 0; u = next(31));
+                }
+                return r;
+            }
+
+            @Override
+            public long nextLong(){
+                return ((long) next(32) << 32) + next(32);
+            }
+
+            @Override
+            public double nextDouble(){
+                return (((long) next(26) << 27) + next(27)) * 0x1.0p-53;
+            }
+
+            // the same as nextInt(bound) and nextDouble with the seed kept in a local for the whole batch
+
+            @Override
+            void nextInts(int[] out, int[] bounds){
+                var seed = this.seed;
+                for(int i = 0, b = 0; i < out.length; i ++, b = b + 1 == bounds.length ? 0 : b + 1){
+                    var bound = bounds[b];
+                    seed = (seed * MULTIPLIER + ADDEND) & MASK;
+                    var r = (int) (seed >>> 17);
+                    var m = bound - 1;
+                    if((bound & m) == 0){
+                        r = (int) ((bound * (long) r) >> 31);
+                    }else{
+                        var u = r;
+                        while(u - (r = u % bound) + m < 0){
+                            seed = (seed * MULTIPLIER + ADDEND) & MASK;
+                            u = (int) (seed >>> 17);
+                        }
+                    }
+                    out[i] = r;
+                }
+                this.seed = seed;
+            }
+
+            @Override
+            void nextDoubles(double[] out){
+                var seed = this.seed;
+                for(int i = 0; i < out.length; i ++){
+                    seed = (seed * MULTIPLIER + ADDEND) & MASK;
+                    var high = (long) (int) (seed >>> 22);
+                    seed = (seed * MULTIPLIER + ADDEND) & MASK;
+                    var low = (int) (seed >>> 21);
+                    out[i] = ((high << 27) + low) * 0x1.0p-53;
+                }
+                this.seed = seed;
+            }
+        }
+
+        private static final long GOLDEN_RATIO_64 = 0x9e3779b97f4a7c15L;
+        private static final long SILVER_RATIO_64 = 0x6A09E667F3BCC909L;
+
+        /**
+         * java.util.SplittableRandom, a Weyl sequence put through a mixing function
+         */
+        private static final class SplitMix extends Generator {
+            private long seed;
+            private long gamma;
+
+            private SplitMix(long seed){
+                this.seed = seed;
+                this.gamma = GOLDEN_RATIO_64;
+            }
+
+            @Override
+            long[] state(){
+                return new long[]{seed, gamma};
+            }
+
+            @Override
+            void restore(long[] state){
+                seed = state[0];
+                gamma = state[1];
+            }
+
+            @Override
+            public int nextInt(){
+                var z = seed += gamma;
+                z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+                return (int) (((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+            }
+
+            @Override
+            public long nextLong(){
+                return mix(seed += gamma);
+            }
+        }
+
+        /**
+         * jdk.random.L64X128MixRandom, a 64 bit LCG and xoroshiro128 added together and mixed
+         */
+        private static final class L64X128 extends Generator {
+            private static final long M = 0xd1342543de82ef95L;
+            private long a, s, x0, x1;
+
+            private L64X128(long seed){
+                seed ^= SILVER_RATIO_64;
+                a = mixMurmur64(seed) | 1;
+                s = 1;
+                x0 = mix(seed);
+                x1 = mix(seed + GOLDEN_RATIO_64);
+                if((x0 | x1) == 0){
+                    x0 = mix(s + GOLDEN_RATIO_64);
+                    x1 = mix(s + 2 * GOLDEN_RATIO_64);
+                }
+            }
+
+            private static long mixMurmur64(long z){
+                z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+                z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+                return z ^ (z >>> 33);
+            }
+
+            private static long mixLea64(long z){
+                z = (z ^ (z >>> 32)) * 0xdaba0b6eb09322e3L;
+                z = (z ^ (z >>> 32)) * 0xdaba0b6eb09322e3L;
+                return z ^ (z >>> 32);
+            }
+
+            @Override
+            long[] state(){
+                return new long[]{a, s, x0, x1};
+            }
+
+            @Override
+            void restore(long[] state){
+                a = state[0];
+                s = state[1];
+                x0 = state[2];
+                x1 = state[3];
+            }
+
+            @Override
+            public long nextLong(){
+                var result = mixLea64(s + x0);
+                s = M * s + a;
+                var q1 = x1 ^ x0;
+                x0 = Long.rotateLeft(x0, 24) ^ q1 ^ (q1 << 16);
+                x1 = Long.rotateLeft(q1, 37);
+                return result;
+            }
+        }
+
+        /**
+         * jdk.random.Xoshiro256PlusPlus
+         */
+        private static final class Xoshiro256 extends Generator {
+            private long x0, x1, x2, x3;
+
+            private Xoshiro256(long seed){
+                seed ^= SILVER_RATIO_64;
+                x0 = mix(seed);
+                x1 = mix(seed += GOLDEN_RATIO_64);
+                x2 = mix(seed += GOLDEN_RATIO_64);
+                x3 = mix(seed + GOLDEN_RATIO_64);
+                if((x0 | x1 | x2 | x3) == 0){
+                    x0 = mix(GOLDEN_RATIO_64);
+                    x1 = 2 * GOLDEN_RATIO_64;
+                    x2 = 3 * GOLDEN_RATIO_64;
+                    x3 = 4 * GOLDEN_RATIO_64;
+                }
+            }
+
+            @Override
+            long[] state(){
+                return new long[]{x0, x1, x2, x3};
+            }
+
+            @Override
+            void restore(long[] state){
+                x0 = state[0];
+                x1 = state[1];
+                x2 = state[2];
+                x3 = state[3];
+            }
+
+            @Override
+            public long nextLong(){
+                var result = Long.rotateLeft(x0 + x3, 23) + x0;
+                var t = x1 << 17;
+                x2 ^= x0;
+                x3 ^= x1;
+                x1 ^= x2;
+                x0 ^= x3;
+                x2 ^= t;
+                x3 = Long.rotateLeft(x3, 45);
+                return result;
+            }
+        }
+
+        /**
+         * jdk.random.Xoroshiro128PlusPlus
+         */
+        private static final class Xoroshiro128 extends Generator {
+            private long x0, x1;
+
+            private Xoroshiro128(long seed){
+                seed ^= SILVER_RATIO_64;
+                x0 = mix(seed);
+                x1 = mix(seed + GOLDEN_RATIO_64);
+                if((x0 | x1) == 0){
+                    x0 = GOLDEN_RATIO_64;
+                    x1 = SILVER_RATIO_64;
+                }
+            }
+
+            @Override
+            long[] state(){
+                return new long[]{x0, x1};
+            }
+
+            @Override
+            void restore(long[] state){
+                x0 = state[0];
+                x1 = state[1];
+            }
+
+            @Override
+            public long nextLong(){
+                var s0 = x0;
+                var s1 = x1;
+                var result = Long.rotateLeft(s0 + s1, 17) + s0;
+                s1 ^= s0;
+                x0 = Long.rotateLeft(s0, 49) ^ s1 ^ (s1 << 21);
+                x1 = Long.rotateLeft(s1, 28);
+                return result;
+            }
+        }
     }
 }
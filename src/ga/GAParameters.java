@@ -4,6 +4,8 @@ import data.ProblemSet;
 import ga.functional.*;
 import util.Util;
 
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * all the parameters except for max generation and seed a GA will use.
  */
@@ -14,11 +16,14 @@ public class GAParameters {
     public double crossoverRate;
     public double mutationRate;
     public int populationSize;
+    public int tournamentSize = 4;
     public InitializerKind initialize;
     public SelectionKind select;
     public FitnessKind fitness;
     public MutationKind mutate;
     public CrossoverKind crossover;
+    public EncodingKind encoding = EncodingKind.Free;
+    public GA.GaRNG.Engine rng = GA.GaRNG.Engine.Legacy;
 
     public GAParameters(ProblemSet problemSet) {
         this.problemSet = problemSet;
@@ -30,28 +35,55 @@ public class GAParameters {
             double crossoverRate,
             double mutationRate,
             int populationSize,
+            int tournamentSize,
             InitializerKind initialize,
             SelectionKind select,
             FitnessKind fitness,
             MutationKind mutate,
-            CrossoverKind crossover
+            CrossoverKind crossover,
+            EncodingKind encoding,
+            GA.GaRNG.Engine rng
     ) {
         this.problemSet = problemSet;
         this.elitismRate = elitismRate;
         this.crossoverRate = crossoverRate;
         this.mutationRate = mutationRate;
         this.populationSize = populationSize;
+        this.tournamentSize = tournamentSize;
         this.initialize = initialize;
         this.select = select;
         this.fitness = fitness;
         this.mutate = mutate;
         this.crossover = crossover;
+        this.encoding = encoding;
+        this.rng = rng;
     }
 
     @Override
     @SuppressWarnings("MethodDoesntCallSuperMethod")
     public GAParameters clone() {
-        return new GAParameters(problemSet, elitismRate, crossoverRate, mutationRate, populationSize, initialize, select, fitness, mutate, crossover);
+        return new GAParameters(problemSet, elitismRate, crossoverRate, mutationRate, populationSize, tournamentSize, initialize, select, fitness, mutate, crossover, encoding, rng);
+    }
+
+    /**
+     * @param populationSize    used in place of {@link #populationSize}
+     * @param pool              if not null the GA evaluates its generations in parallel on this pool
+     * @return A GA which runs with these parameters
+     */
+    public GA create(long seed, int populationSize, ForkJoinPool pool){
+        return new GA(
+                seed, problemSet,
+                elitismRate, crossoverRate, mutationRate, populationSize, tournamentSize,
+                initialize.initializer,
+                select.selector,
+                fitness.fitness,
+                mutate.fitness,
+                crossover.crossover,
+                encoding,
+                rng,
+                null,
+                pool
+        );
     }
 
     @Override
@@ -60,12 +92,23 @@ public class GAParameters {
                 "  crossoverRate: " + crossoverRate +
                 "  mutationRate: " + mutationRate +
                 "  populationSize: " + populationSize +
-                "\n" + initialize + " " + select + " " + fitness + " " + mutate + " " + crossover;
+                "  tournamentSize: " + tournamentSize +
+                "\n" + initialize + " " + select + " " + fitness + " " + mutate + " " + crossover + " " + encoding + " " + rng;
     }
 
 
+    public enum EncodingKind {
+        /** every gene picks its own course, so a course can be scheduled any number of times */
+        Free,
+        /** gene i is always course i, only its room and timeslot evolve */
+        Positional,
+    }
+
     public enum InitializerKind {
-        Random(Chromosome::random);
+        Random(Chromosome::random),
+        Greedy(Chromosome::greedy),
+        /** greedy for {@link GA#greedyRatio} of the population and random for the rest */
+        Mixed(ga -> ga.rng.percent(ga.greedyRatio) ? Chromosome.greedy(ga) : Chromosome.random(ga));
         public final Initializer initializer;
         InitializerKind(Initializer initializer) {
             this.initializer = initializer;
@@ -75,14 +118,17 @@ public class GAParameters {
     public enum SelectionKind {
         Tournament((chromosomes, ga) -> {
             var max = ga.rng.randomInt(chromosomes.length);
-            for(int i = 1; i < 4; i++){
+            for(int i = 1; i < ga.tournamentSize; i++){
                 var inx = ga.rng.randomInt(chromosomes.length);
                 if(ga.cmp.compare(chromosomes[inx], chromosomes[max]) > 0)
                     max = inx;
             }
             return chromosomes[max];
         }),
-        Random((chromosomes, ga) -> chromosomes[ga.rng.randomInt(chromosomes.length)]);
+        Random((chromosomes, ga) -> chromosomes[ga.rng.randomInt(chromosomes.length)]),
+        StochasticUniversal(Sampling.STOCHASTIC_UNIVERSAL),
+        AliasFitness(Sampling.ALIAS_FITNESS),
+        AliasRank(Sampling.ALIAS_RANK);
         public final Selector selector;
         SelectionKind(Selector selector) {
             this.selector = selector;
@@ -90,7 +136,27 @@ public class GAParameters {
     }
 
     public enum FitnessKind{
-        WeightedConflicts(Chromosome::conflicts);
+        WeightedConflicts(new Fitness() {
+            @Override
+            public double calcRaw(Chromosome c, ProblemSet ps) {
+                return c.conflicts(ps);
+            }
+
+            @Override
+            public double lowerBound(ProblemSet ps, EncodingKind encoding) {
+                return Chromosome.conflictsLowerBound(ps, encoding == EncodingKind.Positional);
+            }
+
+            @Override
+            public double calcRawMutated(Chromosome c, Chromosome parent, int gene, ProblemSet ps) {
+                return parent.rawFitness + c.conflictsDelta(parent, gene, ps);
+            }
+
+            @Override
+            public double calcRawMoved(Chromosome c, Chromosome parent, int conflictsDelta, ProblemSet ps) {
+                return parent.rawFitness + conflictsDelta;
+            }
+        });
         public final Fitness fitness;
         FitnessKind(Fitness fitness) {
             this.fitness = fitness;
@@ -98,7 +164,9 @@ public class GAParameters {
     }
 
     public enum MutationKind{
-        SingleGene(Chromosome::singleGeneMutation);
+        SingleGene(Chromosome::singleGeneMutation),
+        /** hill climbs out of conflicts rather than mutating at random, see {@link Chromosome#localSearch(GA)} */
+        LocalSearch(Chromosome::localSearch);
         public final Mutator fitness;
         MutationKind(Mutator fitness) {
             this.fitness = fitness;
@@ -1,13 +1,20 @@
 package ga;
 
 import java.util.ArrayList;
+import java.util.List;
 
 public final class GAResult {
     public final ArrayList<GenerationStat> stats;
     public final Chromosome result;
+    public final List<Stagnation.Event> stagnation;
 
     public GAResult(ArrayList<GenerationStat> stats, Chromosome result) {
+        this(stats, result, List.of());
+    }
+
+    public GAResult(ArrayList<GenerationStat> stats, Chromosome result, List<Stagnation.Event> stagnation) {
         this.stats = stats;
         this.result = result;
+        this.stagnation = stagnation;
     }
 }
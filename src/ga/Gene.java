@@ -1,5 +1,8 @@
 package ga;
 
+/**
+ * A copy of a single gene in a chromosome, see {@link Chromosome#genes()}
+ */
 public class Gene {
     public final int roomIdx;
     public final int courseIdx;
@@ -0,0 +1,112 @@
+package ga;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A Java Flight Recorder event for every generation a {@link GA} evolves and evaluates, with its stats and where its
+ * time went. While a recording has it enabled phase times are recorded even if {@link GA#phaseTimes} is off, they are
+ * just not added to the stats.
+ */
+@Name("ga.Generation")
+@Label("Generation")
+@Category("Genetic Algorithm")
+@Description("A generation of a GA from elitism through evaluation")
+@StackTrace(false)
+public final class GenerationEvent extends Event {
+    @Label("Seed")
+    public long seed;
+    @Label("Generation")
+    public int generation;
+
+    @Label("Min Fitness")
+    public double minFit;
+    @Label("Max Fitness")
+    public double maxFit;
+    @Label("Average Fitness")
+    public double averageFit;
+    @Label("Min Raw Fitness")
+    public double minRawFit;
+    @Label("Max Raw Fitness")
+    public double maxRawFit;
+    @Label("Average Raw Fitness")
+    public double averageRawFit;
+    @Label("Fitness Standard Deviation")
+    public double stdFit;
+    @Label("Raw Fitness Standard Deviation")
+    public double stdRawFit;
+    @Label("Distinct Raw Fitness")
+    @Description("-1 if extended stats are off")
+    public int distinctRawFit;
+    @Label("Cache Hits")
+    @Description("-1 if the fitness cache is off")
+    public long cacheHits;
+    @Label("Cache Misses")
+    @Description("-1 if the fitness cache is off")
+    public long cacheMisses;
+
+    @Label("Initialize")
+    @Timespan
+    public long initialize;
+    @Label("Elitism")
+    @Timespan
+    public long elitism;
+    @Label("Selection")
+    @Timespan
+    public long selection;
+    @Label("Crossover")
+    @Timespan
+    public long crossover;
+    @Label("Mutation")
+    @Timespan
+    public long mutation;
+    @Label("Evaluate")
+    @Timespan
+    public long evaluate;
+    @Label("Fitness")
+    @Description("Time spent scoring chromosomes during the other phases")
+    @Timespan
+    public long fitness;
+    @Label("Evaluations")
+    public long evaluations;
+    @Label("Crossovers")
+    public long crossovers;
+    @Label("Mutations")
+    public long mutations;
+
+    /**
+     * Fill out the values of the generation
+     * @param phases    where its time went, or null if it wasn't recorded
+     */
+    void set(long seed, int generation, GenerationStat stat, PhaseTimes phases){
+        this.seed = seed;
+        this.generation = generation;
+        minFit = stat.minFit;
+        maxFit = stat.maxFit;
+        averageFit = stat.averageFit;
+        minRawFit = stat.minRawFit;
+        maxRawFit = stat.maxRawFit;
+        averageRawFit = stat.averageRawFit;
+        stdFit = stat.stdFit;
+        stdRawFit = stat.stdRawFit;
+        distinctRawFit = stat.distinctRawFit;
+        cacheHits = stat.cacheHits;
+        cacheMisses = stat.cacheMisses;
+        if(phases == null) return;
+        initialize = phases.nanos(PhaseTimes.Phase.Initialize);
+        elitism = phases.nanos(PhaseTimes.Phase.Elitism);
+        selection = phases.nanos(PhaseTimes.Phase.Selection);
+        crossover = phases.nanos(PhaseTimes.Phase.Crossover);
+        mutation = phases.nanos(PhaseTimes.Phase.Mutation);
+        evaluate = phases.nanos(PhaseTimes.Phase.Evaluate);
+        fitness = phases.fitnessNanos;
+        evaluations = phases.evaluations;
+        crossovers = phases.crossovers;
+        mutations = phases.mutations;
+    }
+}
@@ -1,9 +1,16 @@
 package ga;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.text.NumberFormat;
 import java.util.Arrays;
+import java.util.Comparator;
 
 public final class GenerationStat {
+    /** the percentiles of the raw fitness recorded with extended stats */
+    public static final double[] PERCENTILES = {0.1, 0.25, 0.5, 0.75, 0.9};
+
     public final double minFit;
     public final double maxFit;
     public final double averageFit;
@@ -12,24 +19,423 @@ public final class GenerationStat {
     public final double maxRawFit;
     public final double averageRawFit;
 
+    /** the population standard deviations, NaN if unknown */
+    public final double stdFit;
+    public final double stdRawFit;
+    /** the index of the best individual in the population, -1 if unknown */
+    public final int bestIndex;
+
+    /** the number of distinct raw fitness values in the population, -1 if extended stats are off */
+    public final int distinctRawFit;
+    /** the raw fitness at each of {@link #PERCENTILES}, null if extended stats are off */
+    public final double[] rawPercentiles;
+
+    /** how many chromosomes created for this generation were and weren't found in the fitness cache, -1 if it is off */
+    public final long cacheHits;
+    public final long cacheMisses;
+
+    /** where the time of this generation went, null if {@link GA#phaseTimes} is off */
+    public final PhaseTimes phases;
+
     public GenerationStat(double minFit, double maxFit, double averageFit, double minRawFit, double maxRawFit, double averageRawFit) {
-        this.minFit = minFit;
-        this.maxFit = maxFit;
-        this.averageFit = averageFit;
-        this.minRawFit = minRawFit;
-        this.maxRawFit = maxRawFit;
-        this.averageRawFit = averageRawFit;
+        this(new Builder().fitness(minFit, maxFit, averageFit).rawFitness(minRawFit, maxRawFit, averageRawFit));
+    }
+
+    private GenerationStat(Builder b) {
+        this.minFit = b.minFit;
+        this.maxFit = b.maxFit;
+        this.averageFit = b.averageFit;
+        this.minRawFit = b.minRawFit;
+        this.maxRawFit = b.maxRawFit;
+        this.averageRawFit = b.averageRawFit;
+        this.stdFit = b.stdFit;
+        this.stdRawFit = b.stdRawFit;
+        this.bestIndex = b.bestIndex;
+        this.distinctRawFit = b.distinctRawFit;
+        this.rawPercentiles = b.rawPercentiles;
+        this.cacheHits = b.cacheHits;
+        this.cacheMisses = b.cacheMisses;
+        this.phases = b.phases;
+    }
+
+    /**
+     * Builds a stat with the optional values that are known, the rest are left unknown.
+     */
+    public static final class Builder {
+        private double minFit, maxFit, averageFit;
+        private double minRawFit, maxRawFit, averageRawFit;
+        private double stdFit = Double.NaN, stdRawFit = Double.NaN;
+        private int bestIndex = -1;
+        private int distinctRawFit = -1;
+        private double[] rawPercentiles;
+        private long cacheHits = -1, cacheMisses = -1;
+        private PhaseTimes phases;
+
+        public Builder() {
+        }
+
+        /**
+         * Starts from every value of stat
+         */
+        public Builder(GenerationStat stat) {
+            fitness(stat.minFit, stat.maxFit, stat.averageFit);
+            rawFitness(stat.minRawFit, stat.maxRawFit, stat.averageRawFit);
+            std(stat.stdFit, stat.stdRawFit);
+            bestIndex(stat.bestIndex);
+            extended(stat.distinctRawFit, stat.rawPercentiles);
+            cache(stat.cacheHits, stat.cacheMisses);
+            phases(stat.phases);
+        }
+
+        public Builder fitness(double min, double max, double average){
+            this.minFit = min;
+            this.maxFit = max;
+            this.averageFit = average;
+            return this;
+        }
+
+        public Builder rawFitness(double min, double max, double average){
+            this.minRawFit = min;
+            this.maxRawFit = max;
+            this.averageRawFit = average;
+            return this;
+        }
+
+        public Builder std(double fit, double rawFit){
+            this.stdFit = fit;
+            this.stdRawFit = rawFit;
+            return this;
+        }
+
+        public Builder bestIndex(int bestIndex){
+            this.bestIndex = bestIndex;
+            return this;
+        }
+
+        public Builder extended(int distinctRawFit, double[] rawPercentiles){
+            this.distinctRawFit = distinctRawFit;
+            this.rawPercentiles = rawPercentiles;
+            return this;
+        }
+
+        public Builder cache(long hits, long misses){
+            this.cacheHits = hits;
+            this.cacheMisses = misses;
+            return this;
+        }
+
+        public Builder phases(PhaseTimes phases){
+            this.phases = phases;
+            return this;
+        }
+
+        public GenerationStat build(){
+            return new GenerationStat(this);
+        }
+    }
+
+    /**
+     * @return These stats with the provided phase times
+     */
+    public GenerationStat withPhases(PhaseTimes phases){
+        return new Builder(this).phases(phases).build();
+    }
+
+    /**
+     * Write every value, big endian
+     */
+    public void write(DataOutputStream out) throws IOException {
+        out.writeDouble(minFit);
+        out.writeDouble(maxFit);
+        out.writeDouble(averageFit);
+        out.writeDouble(minRawFit);
+        out.writeDouble(maxRawFit);
+        out.writeDouble(averageRawFit);
+        out.writeDouble(stdFit);
+        out.writeDouble(stdRawFit);
+        out.writeInt(bestIndex);
+        out.writeInt(distinctRawFit);
+        out.writeInt(rawPercentiles == null ? -1 : rawPercentiles.length);
+        if(rawPercentiles != null)
+            for(var p : rawPercentiles) out.writeDouble(p);
+        out.writeLong(cacheHits);
+        out.writeLong(cacheMisses);
+        out.writeBoolean(phases != null);
+        if(phases != null) phases.write(out);
+    }
+
+    /**
+     * Read a stat written by {@link #write(DataOutputStream)}
+     */
+    public static GenerationStat read(DataInputStream in) throws IOException {
+        var minFit = in.readDouble();
+        var maxFit = in.readDouble();
+        var averageFit = in.readDouble();
+        var minRawFit = in.readDouble();
+        var maxRawFit = in.readDouble();
+        var averageRawFit = in.readDouble();
+        var stdFit = in.readDouble();
+        var stdRawFit = in.readDouble();
+        var bestIndex = in.readInt();
+        var distinct = in.readInt();
+        var percentileCount = in.readInt();
+        double[] percentiles = null;
+        if(percentileCount >= 0){
+            percentiles = new double[percentileCount];
+            for(int p = 0; p < percentileCount; p ++) percentiles[p] = in.readDouble();
+        }
+        return new Builder()
+                .fitness(minFit, maxFit, averageFit)
+                .rawFitness(minRawFit, maxRawFit, averageRawFit)
+                .std(stdFit, stdRawFit)
+                .bestIndex(bestIndex)
+                .extended(distinct, percentiles)
+                .cache(in.readLong(), in.readLong())
+                .phases(in.readBoolean() ? PhaseTimes.read(in) : null)
+                .build();
+    }
+
+    /**
+     * Combine the stats of several populations from the same generation into the stats of them as one population.
+     * Only the min, max, mean, standard deviation, cache counts and phase times can be combined, the rest are left
+     * unknown. Phase times are summed so they are the time spent by every population rather than how long the
+     * generation took.
+     * @param sizes the size of each population
+     */
+    public static GenerationStat combine(GenerationStat[] stats, int[] sizes){
+        double total = Arrays.stream(sizes).sum();
+        double minFit = Double.POSITIVE_INFINITY, maxFit = Double.NEGATIVE_INFINITY, averageFit = 0;
+        double minRawFit = Double.POSITIVE_INFINITY, maxRawFit = Double.NEGATIVE_INFINITY, averageRawFit = 0;
+        long cacheHits = 0, cacheMisses = 0;
+        var phases = stats.length == 0 ? null : stats[0].phases;
+        for(int i = 0; i < stats.length; i ++){
+            if(i > 0) phases = phases == null || stats[i].phases == null ? null : phases.plus(stats[i].phases);
+            minFit = Math.min(minFit, stats[i].minFit);
+            maxFit = Math.max(maxFit, stats[i].maxFit);
+            averageFit += stats[i].averageFit * sizes[i] / total;
+            minRawFit = Math.min(minRawFit, stats[i].minRawFit);
+            maxRawFit = Math.max(maxRawFit, stats[i].maxRawFit);
+            averageRawFit += stats[i].averageRawFit * sizes[i] / total;
+            cacheHits = cacheHits < 0 || stats[i].cacheHits < 0 ? -1 : cacheHits + stats[i].cacheHits;
+            cacheMisses = cacheMisses < 0 || stats[i].cacheMisses < 0 ? -1 : cacheMisses + stats[i].cacheMisses;
+        }
+        // the pooled variance is the mean of each populations variance plus its squared distance from the overall mean
+        double varFit = 0, varRawFit = 0;
+        for(int i = 0; i < stats.length; i ++){
+            varFit += sizes[i] * (stats[i].stdFit * stats[i].stdFit + Math.pow(stats[i].averageFit - averageFit, 2)) / total;
+            varRawFit += sizes[i] * (stats[i].stdRawFit * stats[i].stdRawFit + Math.pow(stats[i].averageRawFit - averageRawFit, 2)) / total;
+        }
+        return new Builder()
+                .fitness(minFit, maxFit, averageFit)
+                .rawFitness(minRawFit, maxRawFit, averageRawFit)
+                .std(Math.sqrt(varFit), Math.sqrt(varRawFit))
+                .cache(cacheHits, cacheMisses)
+                .phases(phases)
+                .build();
+    }
+
+    /**
+     * Collects the stats of a population in a single pass while also finding its best individual and its elites. It is
+     * reused for every generation of a GA.
+     */
+    static final class Accumulator {
+        private final Comparator<Chromosome> cmp;
+        private final boolean extended;
+        private double[] raw = new double[0];
+
+        // a min heap of the best individuals seen so far, the worst of them at the root
+        private final Chromosome[] elites;
+        private final int[] eliteIdx;
+        private int eliteCount;
+
+        private final Moments fit = new Moments();
+        private final Moments rawFit = new Moments();
+        private int count;
+        private Chromosome best;
+        private int bestIndex;
+
+        Accumulator(Comparator<Chromosome> cmp, boolean extended, int elites) {
+            this.cmp = cmp;
+            this.extended = extended;
+            this.elites = new Chromosome[elites];
+            this.eliteIdx = new int[elites];
+        }
+
+        void reset(int size){
+            fit.reset();
+            rawFit.reset();
+            count = 0;
+            best = null;
+            bestIndex = -1;
+            eliteCount = 0;
+            if(extended && raw.length < size) raw = new double[size];
+        }
+
+        void add(Chromosome c){
+            fit.add(c.fitness);
+            rawFit.add(c.rawFitness);
+            if(extended) raw[count] = c.rawFitness;
+            // the first of equally good individuals stays the best
+            if(best == null || cmp.compare(best, c) < 0){
+                best = c;
+                bestIndex = count;
+            }
+            if(elites.length != 0) offerElite(c, count);
+            count += 1;
+        }
+
+        /**
+         * @return If a at index ai is a worse elite than b at index bi, of equally good individuals the later one is
+         * worse
+         */
+        private boolean worse(Chromosome a, int ai, Chromosome b, int bi){
+            var order = cmp.compare(a, b);
+            return order < 0 || (order == 0 && ai > bi);
+        }
+
+        private void offerElite(Chromosome c, int index){
+            if(eliteCount < elites.length){
+                elites[eliteCount] = c;
+                eliteIdx[eliteCount] = index;
+                eliteCount += 1;
+                siftUp(eliteCount - 1);
+            }else if(worse(elites[0], eliteIdx[0], c, index)){
+                elites[0] = c;
+                eliteIdx[0] = index;
+                siftDown(0);
+            }
+        }
+
+        private void swapElites(int i, int j){
+            var c = elites[i];
+            elites[i] = elites[j];
+            elites[j] = c;
+            var idx = eliteIdx[i];
+            eliteIdx[i] = eliteIdx[j];
+            eliteIdx[j] = idx;
+        }
+
+        private void siftUp(int i){
+            while(i > 0){
+                var parent = (i - 1) / 2;
+                if(!worse(elites[i], eliteIdx[i], elites[parent], eliteIdx[parent])) return;
+                swapElites(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i){
+            while(true){
+                var worst = i;
+                for(var child = 2 * i + 1; child <= 2 * i + 2 && child < eliteCount; child ++){
+                    if(worse(elites[child], eliteIdx[child], elites[worst], eliteIdx[worst])) worst = child;
+                }
+                if(worst == i) return;
+                swapElites(i, worst);
+                i = worst;
+            }
+        }
+
+        /**
+         * Write the elites of the last population best first to the start of population. This empties the elites.
+         */
+        void elites(Chromosome[] population){
+            while(eliteCount > 0){
+                population[eliteCount - 1] = elites[0];
+                eliteCount -= 1;
+                swapElites(0, eliteCount);
+                elites[eliteCount] = null;
+                siftDown(0);
+            }
+        }
+
+        Chromosome best(){
+            return best;
+        }
+
+        GenerationStat stat(long cacheHits, long cacheMisses){
+            var distinct = -1;
+            double[] percentiles = null;
+            if(extended){
+                Arrays.sort(raw, 0, count);
+                distinct = count == 0 ? 0 : 1;
+                for(int i = 1; i < count; i ++){
+                    if(Double.compare(raw[i-1], raw[i]) != 0) distinct += 1;
+                }
+                percentiles = new double[PERCENTILES.length];
+                for(int i = 0; i < PERCENTILES.length && count != 0; i ++){
+                    var rank = (int) Math.ceil(PERCENTILES[i] * count) - 1;
+                    percentiles[i] = raw[Math.max(0, Math.min(count - 1, rank))];
+                }
+            }
+            return new Builder()
+                    .fitness(fit.min(), fit.max(), fit.average())
+                    .rawFitness(rawFit.min(), rawFit.max(), rawFit.average())
+                    .std(fit.std(), rawFit.std())
+                    .bestIndex(bestIndex)
+                    .extended(distinct, percentiles)
+                    .cache(cacheHits, cacheMisses)
+                    .build();
+        }
     }
 
-    GenerationStat(Chromosome[] population) {
-        this.maxFit = Arrays.stream(population).mapToDouble(c -> c.fitness).max().orElse(0.0);
-        this.minFit = Arrays.stream(population).mapToDouble(c -> c.fitness).min().orElse(0.0);
-        this.averageFit = Arrays.stream(population).mapToDouble(c -> c.fitness).average().orElse(0.0);
+    /**
+     * Running min, max, mean and variance of a series of values.
+     * <br/>
+     * The sum is compensated the same way {@link java.util.stream.DoubleStream#average()} does so averages match what
+     * streaming the values would give.
+     */
+    private static final class Moments {
+        private int count;
+        private double min;
+        private double max;
+        private double sum;
+        private double compensation;
+        private double simpleSum;
+        private double mean;
+        private double m2;
+
+        void reset(){
+            count = 0;
+            min = Double.POSITIVE_INFINITY;
+            max = Double.NEGATIVE_INFINITY;
+            sum = compensation = simpleSum = mean = m2 = 0;
+        }
+
+        void add(double value){
+            count += 1;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+
+            var tmp = value - compensation;
+            var velvel = sum + tmp;
+            compensation = (velvel - sum) - tmp;
+            sum = velvel;
+            simpleSum += value;
+
+            var delta = value - mean;
+            mean += delta / count;
+            m2 += delta * (value - mean);
+        }
+
+        double min(){
+            return count == 0 ? 0.0 : min;
+        }
+
+        double max(){
+            return count == 0 ? 0.0 : max;
+        }
 
+        double average(){
+            if(count == 0) return 0.0;
+            var total = sum - compensation;
+            if(Double.isNaN(total) && Double.isInfinite(simpleSum)) total = simpleSum;
+            return total / count;
+        }
 
-        this.maxRawFit = Arrays.stream(population).mapToDouble(c -> c.rawFitness).max().orElse(0.0);
-        this.minRawFit = Arrays.stream(population).mapToDouble(c -> c.rawFitness).min().orElse(0.0);
-        this.averageRawFit = Arrays.stream(population).mapToDouble(c -> c.rawFitness).average().orElse(0.0);
+        double std(){
+            return count == 0 ? 0.0 : Math.sqrt(m2 / count);
+        }
     }
 
     private static String percent(double value) {
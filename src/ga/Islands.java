@@ -0,0 +1,222 @@
+package ga;
+
+import ga.functional.Fitness;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * The island model, a single run split across several independent {@link GA} populations which each evolve on their own
+ * thread. Every few generations the best individuals of each island migrate to another island, replacing its worst.
+ * <br/>
+ * Islands only wait for each other when migrating, and which island migrants go to is drawn from a generator owned by
+ * this rather than the islands, so the result only depends on the seed and not on how the islands were scheduled.
+ */
+public class Islands {
+
+    /**
+     * Where the migrants of each island go
+     */
+    public enum Topology {
+        /** island i sends its migrants to island i + 1, the last island sends to the first */
+        Ring,
+        /** every migration each island sends its migrants to a different island picked at random */
+        Random,
+    }
+
+    /**
+     * A single population of the model, either a GA in this process or one run somewhere else
+     */
+    public interface Island {
+        /**
+         * Create and evaluate the initial population
+         * @return the best individual of the initial population
+         */
+        Chromosome start();
+
+        /**
+         * Evolve the generations [from, to], stopping after the first generation with a complete solution
+         * @return the best individual of the last generation evolved
+         */
+        Chromosome evolve(int from, int to);
+
+        /**
+         * @see GA#emigrants(int)
+         */
+        Chromosome[] emigrants(int count);
+
+        /**
+         * @see GA#immigrate(Chromosome[])
+         */
+        Chromosome immigrate(Chromosome[] immigrants);
+
+        /**
+         * @return The stats of every generation evolved so far
+         */
+        List<GenerationStat> stats();
+    }
+
+    /**
+     * Creates a single island
+     */
+    @FunctionalInterface
+    public interface Factory {
+        Island create(int island, long seed, int populationSize);
+    }
+
+    /**
+     * @return ga as an island of this process
+     */
+    public static Island local(GA ga){
+        return new Island() {
+            @Override
+            public Chromosome start() {
+                return ga.start();
+            }
+
+            @Override
+            public Chromosome evolve(int from, int to) {
+                Chromosome best = null;
+                for(int gen = from; gen <= to; gen ++){
+                    best = ga.step(gen);
+                    if(ga.finished(best)) break;
+                }
+                return best;
+            }
+
+            @Override
+            public Chromosome[] emigrants(int count) {
+                return ga.emigrants(count);
+            }
+
+            @Override
+            public Chromosome immigrate(Chromosome[] immigrants) {
+                return ga.immigrate(immigrants);
+            }
+
+            @Override
+            public List<GenerationStat> stats() {
+                return ga.stats();
+            }
+        };
+    }
+
+    private final Island[] islands;
+    private final Fitness fitness;
+    private final Comparator<Chromosome> cmp;
+    private final double lowerBound;
+    private final int[] sizes;
+    private final Topology topology;
+    private final int interval;
+    private final int migrants;
+    private final GA.GaRNG rng;
+    private final Executor executor;
+
+    /**
+     * @param count             the number of islands
+     * @param populationSize    the population of all the islands together, it is split as evenly as possible
+     * @param interval          how many generations the islands evolve for between migrations
+     * @param migrants          how many individuals each island sends every migration
+     * @param executor          runs the islands, it should have a thread for every island
+     * @param params            the parameters every island runs with, only its fitness and encoding are used here
+     */
+    public Islands(long seed, int count, int populationSize, Topology topology, int interval, int migrants, Executor executor, GAParameters params, Factory factory){
+        this.islands = new Island[count];
+        this.fitness = params.fitness.fitness;
+        this.cmp = fitness.rank(params.problemSet);
+        this.lowerBound = fitness.lowerBound(params.problemSet, params.encoding);
+        this.sizes = new int[count];
+        this.topology = topology;
+        this.interval = Math.max(1, interval);
+        this.migrants = migrants;
+        this.rng = new GA.GaRNG(params.rng, seed);
+        this.executor = executor;
+        for(int i = 0; i < count; i ++){
+            sizes[i] = populationSize / count + (i < populationSize % count ? 1 : 0);
+            islands[i] = factory.create(i, rng.split().seed, sizes[i]);
+        }
+    }
+
+    /**
+     * Runs every island until one of them finds a complete solution, or one that reaches the lower bound of the
+     * fitness, or maxGens have passed
+     * @return the combined statistics of the islands as well as the best solution found by any of them
+     */
+    public GAResult run(int maxGens){
+        var best = new Chromosome[islands.length];
+        // the first generation each island found a complete solution in, or -1
+        var completed = new int[islands.length];
+        Arrays.fill(completed, -1);
+
+        onEachIsland(i -> {
+            best[i] = islands[i].start();
+            if(fitness.reached(best[i].fitness, lowerBound)) completed[i] = 0;
+        });
+
+        var generation = 0;
+        while(generation < maxGens && firstCompleted(completed) == -1){
+            if(generation != 0) migrate(best);
+            var from = generation + 1;
+            var to = Math.min(maxGens, generation + interval);
+            onEachIsland(i -> {
+                best[i] = islands[i].evolve(from, to);
+                if(fitness.reached(best[i].fitness, lowerBound)) completed[i] = islands[i].stats().size() - 1;
+            });
+            generation = to;
+        }
+
+        var finished = firstCompleted(completed);
+        var generations = finished == -1 ? generation : finished;
+        var stats = new ArrayList<GenerationStat>();
+        for(int gen = 0; gen <= generations; gen ++){
+            var islandStats = new GenerationStat[islands.length];
+            // every island got at least this far, they only stop early once they are complete
+            for(int i = 0; i < islands.length; i ++) islandStats[i] = islands[i].stats().get(gen);
+            stats.add(GenerationStat.combine(islandStats, sizes));
+        }
+
+        Chromosome result = null;
+        for(int i = 0; i < islands.length; i ++){
+            if(finished != -1 && completed[i] != finished) continue;
+            if(result == null || cmp.compare(result, best[i]) < 0) result = best[i];
+        }
+        return new GAResult(stats, result);
+    }
+
+    private static int firstCompleted(int[] completed){
+        return Arrays.stream(completed).filter(c -> c != -1).min().orElse(-1);
+    }
+
+    /**
+     * Every island sends its best individuals to the island the topology picks for it
+     */
+    private void migrate(Chromosome[] best){
+        if(islands.length < 2 || migrants <= 0) return;
+        // everyone leaves before anyone arrives so migrants are never passed along twice
+        var leaving = new Chromosome[islands.length][];
+        for(int i = 0; i < islands.length; i ++) leaving[i] = islands[i].emigrants(migrants);
+        for(int i = 0; i < islands.length; i ++){
+            var to = switch(topology){
+                case Ring -> (i + 1) % islands.length;
+                case Random -> (i + 1 + rng.randomInt(islands.length - 1)) % islands.length;
+            };
+            best[to] = islands[to].immigrate(leaving[i]);
+        }
+    }
+
+    /**
+     * Run task for every island on the executor and wait for them all to finish
+     */
+    private void onEachIsland(IntConsumer task){
+        CompletableFuture.allOf(IntStream.range(0, islands.length)
+                .mapToObj(i -> CompletableFuture.runAsync(() -> task.accept(i), executor))
+                .toArray(CompletableFuture[]::new)
+        ).join();
+    }
+}
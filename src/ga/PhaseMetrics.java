@@ -0,0 +1,130 @@
+package ga;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@link PhaseTimes} of every generation evaluated by this process so far, summed over every GA. Once
+ * {@link #register()}ed it can be watched while a sweep runs with any JMX client, such as jconsole, as
+ * {@value #NAME}.
+ */
+public final class PhaseMetrics implements PhaseMetricsMBean {
+    public static final String NAME = "ga:type=PhaseMetrics";
+    public static final PhaseMetrics INSTANCE = new PhaseMetrics();
+
+    private final LongAdder generations = new LongAdder();
+    private final LongAdder[] nanos = new LongAdder[PhaseTimes.Phase.values().length];
+    private final LongAdder fitnessNanos = new LongAdder();
+    private final LongAdder evaluations = new LongAdder();
+    private final LongAdder crossovers = new LongAdder();
+    private final LongAdder mutations = new LongAdder();
+    private boolean registered;
+
+    private PhaseMetrics(){
+        for(int i = 0; i < nanos.length; i ++) nanos[i] = new LongAdder();
+    }
+
+    /**
+     * Register {@link #INSTANCE} with the platform MBean server, if it isn't already
+     */
+    public static synchronized void register(){
+        if(INSTANCE.registered) return;
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(NAME));
+        } catch (JMException e) {
+            throw new RuntimeException(e);
+        }
+        INSTANCE.registered = true;
+    }
+
+    /**
+     * Count a generation which took times
+     */
+    public void add(PhaseTimes times){
+        generations.increment();
+        for(var phase : PhaseTimes.Phase.values()) nanos[phase.ordinal()].add(times.nanos(phase));
+        fitnessNanos.add(times.fitnessNanos);
+        evaluations.add(times.evaluations);
+        crossovers.add(times.crossovers);
+        mutations.add(times.mutations);
+    }
+
+    private long nanos(PhaseTimes.Phase phase){
+        return nanos[phase.ordinal()].sum();
+    }
+
+    @Override
+    public long getGenerations() {
+        return generations.sum();
+    }
+
+    @Override
+    public long getEvaluations() {
+        return evaluations.sum();
+    }
+
+    @Override
+    public long getCrossovers() {
+        return crossovers.sum();
+    }
+
+    @Override
+    public long getMutations() {
+        return mutations.sum();
+    }
+
+    @Override
+    public long getInitializeNanos() {
+        return nanos(PhaseTimes.Phase.Initialize);
+    }
+
+    @Override
+    public long getElitismNanos() {
+        return nanos(PhaseTimes.Phase.Elitism);
+    }
+
+    @Override
+    public long getSelectionNanos() {
+        return nanos(PhaseTimes.Phase.Selection);
+    }
+
+    @Override
+    public long getCrossoverNanos() {
+        return nanos(PhaseTimes.Phase.Crossover);
+    }
+
+    @Override
+    public long getMutationNanos() {
+        return nanos(PhaseTimes.Phase.Mutation);
+    }
+
+    @Override
+    public long getEvaluateNanos() {
+        return nanos(PhaseTimes.Phase.Evaluate);
+    }
+
+    @Override
+    public long getFitnessNanos() {
+        return fitnessNanos.sum();
+    }
+
+    @Override
+    public double getMeanGenerationNanos() {
+        var total = 0L;
+        for(var n : nanos) total += n.sum();
+        var count = generations.sum();
+        return count == 0 ? 0 : (double) total / count;
+    }
+
+    @Override
+    public void reset() {
+        generations.reset();
+        for(var n : nanos) n.reset();
+        fitnessNanos.reset();
+        evaluations.reset();
+        crossovers.reset();
+        mutations.reset();
+    }
+}
@@ -0,0 +1,25 @@
+package ga;
+
+/**
+ * The JMX view of {@link PhaseMetrics}, every time is in nanoseconds
+ */
+public interface PhaseMetricsMBean {
+    long getGenerations();
+    long getEvaluations();
+    long getCrossovers();
+    long getMutations();
+
+    long getInitializeNanos();
+    long getElitismNanos();
+    long getSelectionNanos();
+    long getCrossoverNanos();
+    long getMutationNanos();
+    long getEvaluateNanos();
+    long getFitnessNanos();
+
+    /** the mean time of a generation across every phase */
+    double getMeanGenerationNanos();
+
+    /** start counting from zero again */
+    void reset();
+}
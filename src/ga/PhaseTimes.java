@@ -0,0 +1,151 @@
+package ga;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Where the time of a generation went and how much work it did, recorded by a {@link GA} with {@link GA#phaseTimes}
+ * on.
+ * <br/>
+ * Chromosomes are scored as they are created so scoring isn't a phase of its own, it happens during the others.
+ * {@link #fitnessNanos} is how much of them was spent scoring. With parallel generations chromosomes are scored on
+ * every thread of the pool at once so it can add up to more than the phases it happened in.
+ */
+public final class PhaseTimes {
+    public enum Phase {
+        /** creating the initial population, or the new individuals of a stagnation restart */
+        Initialize,
+        Elitism,
+        Selection,
+        Crossover,
+        Mutation,
+        /** scanning the population for its stats, best individual and elites */
+        Evaluate
+    }
+
+    private final long[] nanos;
+    /** the time spent scoring chromosomes, across every phase */
+    public final long fitnessNanos;
+    /** how many chromosomes were scored, those whose fitness came from the cache aren't */
+    public final long evaluations;
+    public final long crossovers;
+    public final long mutations;
+
+    public PhaseTimes(long[] nanos, long fitnessNanos, long evaluations, long crossovers, long mutations){
+        this.nanos = nanos;
+        this.fitnessNanos = fitnessNanos;
+        this.evaluations = evaluations;
+        this.crossovers = crossovers;
+        this.mutations = mutations;
+    }
+
+    /**
+     * @return The time spent in phase, in nanoseconds
+     */
+    public long nanos(Phase phase){
+        return nanos[phase.ordinal()];
+    }
+
+    /**
+     * @return The time spent in every phase, in nanoseconds
+     */
+    public long totalNanos(){
+        var total = 0L;
+        for(var n : nanos) total += n;
+        return total;
+    }
+
+    /**
+     * @return The times and counts of this and other added together
+     */
+    public PhaseTimes plus(PhaseTimes other){
+        var sum = nanos.clone();
+        for(int i = 0; i < sum.length; i ++) sum[i] += other.nanos[i];
+        return new PhaseTimes(
+                sum, fitnessNanos + other.fitnessNanos,
+                evaluations + other.evaluations, crossovers + other.crossovers, mutations + other.mutations
+        );
+    }
+
+    public void write(DataOutputStream out) throws IOException {
+        out.writeInt(nanos.length);
+        for(var n : nanos) out.writeLong(n);
+        out.writeLong(fitnessNanos);
+        out.writeLong(evaluations);
+        out.writeLong(crossovers);
+        out.writeLong(mutations);
+    }
+
+    /**
+     * Read times written by {@link #write(DataOutputStream)}
+     */
+    public static PhaseTimes read(DataInputStream in) throws IOException {
+        var nanos = new long[Phase.values().length];
+        var count = in.readInt();
+        if(count != nanos.length) throw new IOException("Expected " + nanos.length + " phases but got " + count);
+        for(int i = 0; i < count; i ++) nanos[i] = in.readLong();
+        return new PhaseTimes(nanos, in.readLong(), in.readLong(), in.readLong(), in.readLong());
+    }
+
+    /**
+     * Read times written by {@link #write(DataOutputStream)} from the current position of in
+     */
+    public static PhaseTimes read(ByteBuffer in) throws IOException {
+        var nanos = new long[Phase.values().length];
+        var count = in.getInt();
+        if(count != nanos.length) throw new IOException("Expected " + nanos.length + " phases but got " + count);
+        for(int i = 0; i < count; i ++) nanos[i] = in.getLong();
+        return new PhaseTimes(nanos, in.getLong(), in.getLong(), in.getLong(), in.getLong());
+    }
+
+    /**
+     * Collects the times of the generation in progress. Everything but the phases themselves is added to from whichever
+     * thread does the work.
+     */
+    static final class Recorder {
+        private final long[] nanos = new long[Phase.values().length];
+        private final LongAdder fitnessNanos = new LongAdder();
+        private final LongAdder evaluations = new LongAdder();
+        private final LongAdder crossovers = new LongAdder();
+        private final LongAdder mutations = new LongAdder();
+
+        /**
+         * Add the time since start to phase
+         * @return The current time, the start of the next phase
+         */
+        long lap(Phase phase, long start){
+            var now = System.nanoTime();
+            nanos[phase.ordinal()] += now - start;
+            return now;
+        }
+
+        void evaluated(long nanos){
+            fitnessNanos.add(nanos);
+            evaluations.increment();
+        }
+
+        void crossover(){
+            crossovers.increment();
+        }
+
+        void mutation(){
+            mutations.increment();
+        }
+
+        /**
+         * @return Everything recorded since the last call, which starts recording the next generation
+         */
+        PhaseTimes take(){
+            var times = new PhaseTimes(
+                    nanos.clone(), fitnessNanos.sumThenReset(),
+                    evaluations.sumThenReset(), crossovers.sumThenReset(), mutations.sumThenReset()
+            );
+            Arrays.fill(nanos, 0);
+            return times;
+        }
+    }
+}
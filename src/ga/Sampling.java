@@ -0,0 +1,153 @@
+package ga;
+
+import ga.functional.Selector;
+
+import java.util.Arrays;
+
+/**
+ * Selectors which build a sampling structure over the population once a generation so that every selection after
+ * that is constant time and needs no comparisons.
+ */
+final class Sampling {
+    private Sampling(){}
+
+    /**
+     * A selector which only works once prepared, building its table for a single selection would make every selection
+     * linear so selecting without preparing is an error.
+     */
+    private interface Prepared extends Selector {
+        @Override
+        default Chromosome select(Chromosome[] chromosomes, GA ga){
+            throw new RuntimeException("Sampling selectors have to be prepared for the population before selecting");
+        }
+
+        @Override
+        Selector prepare(Chromosome[] chromosomes, GA ga);
+    }
+
+    /** fitness proportional selection using an alias table */
+    static final Selector ALIAS_FITNESS = (Prepared) (chromosomes, ga) -> new AliasTable(fitnessWeights(chromosomes));
+
+    /**
+     * linear rank selection by fitness using an alias table, the worst individual has weight 1 and the best weight n.
+     * Of equally fit individuals the earlier one ranks lower.
+     */
+    static final Selector ALIAS_RANK = (Prepared) (chromosomes, ga) -> new AliasTable(rankWeights(chromosomes));
+
+    /** fitness proportional stochastic universal sampling, the whole mating pool is picked in a single sweep */
+    static final Selector STOCHASTIC_UNIVERSAL = (Prepared) (chromosomes, ga) -> {
+        var weights = fitnessWeights(chromosomes);
+        var total = Arrays.stream(weights).sum();
+        var picks = new int[chromosomes.length];
+        var step = total / picks.length;
+        var pointer = ga.rng.randomDouble() * step;
+        var cumulative = weights[0];
+        var individual = 0;
+        for(int i = 0; i < picks.length; i ++){
+            while(pointer >= cumulative && individual < weights.length - 1){
+                individual += 1;
+                cumulative += weights[individual];
+            }
+            picks[i] = individual;
+            pointer += step;
+        }
+        // the picks come out in population order so shuffle them, otherwise neighbouring slots get the same parents
+        for(int i = picks.length - 1; i > 0; i --){
+            var j = ga.rng.randomInt(i + 1);
+            var tmp = picks[i];
+            picks[i] = picks[j];
+            picks[j] = tmp;
+        }
+        return new Selector() {
+            @Override
+            public Chromosome select(Chromosome[] chromosomes, GA ga) {
+                return chromosomes[picks[ga.rng.randomInt(picks.length)]];
+            }
+
+            @Override
+            public Chromosome select(Chromosome[] chromosomes, int slot, GA ga) {
+                return chromosomes[picks[slot % picks.length]];
+            }
+        };
+    };
+
+    private static double[] fitnessWeights(Chromosome[] chromosomes){
+        var weights = Arrays.stream(chromosomes).mapToDouble(c -> Math.max(0, c.fitness)).toArray();
+        // nothing to go off of so everyone is equally likely
+        if(Arrays.stream(weights).sum() <= 0) Arrays.fill(weights, 1);
+        return weights;
+    }
+
+    private static double[] rankWeights(Chromosome[] chromosomes){
+        var n = chromosomes.length;
+        var fitness = new double[n];
+        for(int i = 0; i < n; i ++) fitness[i] = chromosomes[i].fitness;
+        var sorted = fitness.clone();
+        Arrays.sort(sorted);
+        // equally fit individuals share a run of sorted, each takes the next rank of its run in population order
+        var taken = new int[n];
+        var weights = new double[n];
+        for(int i = 0; i < n; i ++){
+            var first = firstIndexOf(sorted, fitness[i]);
+            weights[i] = first + taken[first]++ + 1;
+        }
+        return weights;
+    }
+
+    /**
+     * @return The first index of value in sorted, which has to contain it
+     */
+    private static int firstIndexOf(double[] sorted, double value){
+        int lo = 0, hi = sorted.length - 1;
+        while(lo < hi){
+            var mid = (lo + hi) >>> 1;
+            if(Double.compare(sorted[mid], value) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Vose's alias method, picks index i with probability proportional to weights[i] using one random int and one
+     * random double.
+     */
+    private static final class AliasTable implements Selector {
+        private final double[] prob;
+        private final int[] alias;
+
+        private AliasTable(double[] weights){
+            var n = weights.length;
+            prob = new double[n];
+            alias = new int[n];
+            var total = Arrays.stream(weights).sum();
+            var scaled = new double[n];
+            var small = new int[n];
+            var large = new int[n];
+            var smallCount = 0;
+            var largeCount = 0;
+            for(int i = 0; i < n; i ++){
+                scaled[i] = weights[i] * n / total;
+                if(scaled[i] < 1) small[smallCount++] = i;
+                else large[largeCount++] = i;
+            }
+            while(smallCount > 0 && largeCount > 0){
+                var s = small[--smallCount];
+                var l = large[--largeCount];
+                prob[s] = scaled[s];
+                alias[s] = l;
+                scaled[l] = scaled[l] + scaled[s] - 1;
+                if(scaled[l] < 1) small[smallCount++] = l;
+                else large[largeCount++] = l;
+            }
+            // anything left over is only off from 1 by rounding
+            while(largeCount > 0) prob[large[--largeCount]] = 1;
+            while(smallCount > 0) prob[small[--smallCount]] = 1;
+        }
+
+        @Override
+        public Chromosome select(Chromosome[] chromosomes, GA ga) {
+            var i = ga.rng.randomInt(prob.length);
+            return chromosomes[ga.rng.randomDouble() < prob[i] ? i : alias[i]];
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package ga;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Detects when a GA has stopped making progress, and what to do about it.
+ * <br/>
+ * A GA has stagnated once neither the best nor the average fitness of its population has improved for some number of
+ * generations, or once the standard deviation of its raw fitness falls below a threshold and it has lost its diversity.
+ */
+public final class Stagnation {
+
+    public enum Policy {
+        /** end the run */
+        Stop,
+        /** keep the elites, at least the best individual, and replace the rest of the population with new individuals */
+        Restart,
+    }
+
+    public enum Reason {
+        NoImprovement,
+        LowDiversity,
+    }
+
+    /**
+     * The GA stagnated after evaluating generation
+     */
+    public static final class Event {
+        public final int generation;
+        public final Reason reason;
+        public final Policy action;
+
+        public Event(int generation, Reason reason, Policy action) {
+            this.generation = generation;
+            this.reason = reason;
+            this.action = action;
+        }
+
+        public void write(DataOutputStream out) throws IOException {
+            out.writeInt(generation);
+            out.writeUTF(reason.name());
+            out.writeUTF(action.name());
+        }
+
+        public static Event read(DataInputStream in) throws IOException {
+            return new Event(in.readInt(), Reason.valueOf(in.readUTF()), Policy.valueOf(in.readUTF()));
+        }
+    }
+
+    /** how many generations without improvement is stagnation, 0 to never stagnate this way */
+    public final int generations;
+    /** the standard deviation of raw fitness below which the population has no diversity left, 0 for no limit */
+    public final double diversity;
+    public final Policy policy;
+
+    // the window so far, package private so it can be checkpointed
+    double best;
+    double average;
+    int lastImprovement;
+
+    public Stagnation(int generations, double diversity, Policy policy) {
+        this.generations = generations;
+        this.diversity = diversity;
+        this.policy = policy;
+        reset(0);
+    }
+
+    /**
+     * @return A new detector with the same settings, each GA needs its own
+     */
+    public Stagnation copy(){
+        return new Stagnation(generations, diversity, policy);
+    }
+
+    /**
+     * Forget the fitness seen so far, the next generation starts a new window
+     */
+    void reset(int generation){
+        best = Double.NEGATIVE_INFINITY;
+        average = Double.NEGATIVE_INFINITY;
+        lastImprovement = generation;
+    }
+
+    /**
+     * @return Why the GA has stagnated after this generation, or null if it hasn't
+     */
+    Reason check(int generation, GenerationStat stat){
+        if(stat.maxFit > best || stat.averageFit > average){
+            best = Math.max(best, stat.maxFit);
+            average = Math.max(average, stat.averageFit);
+            lastImprovement = generation;
+        }
+        if(generations > 0 && generation - lastImprovement >= generations) return Reason.NoImprovement;
+        if(stat.stdRawFit < diversity) return Reason.LowDiversity;
+        return null;
+    }
+}
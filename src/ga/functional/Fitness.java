@@ -2,11 +2,28 @@ package ga.functional;
 
 import data.ProblemSet;
 import ga.Chromosome;
+import ga.GAParameters;
 
 import java.util.Comparator;
 
 public interface Fitness {
     double calcRaw(Chromosome c, ProblemSet ga);
+
+    /**
+     * Calculate the raw fitness of a chromosome that is a copy of parent with only the provided gene changed.
+     * By default this is just a full calculation.
+     */
+    default double calcRawMutated(Chromosome c, Chromosome parent, int gene, ProblemSet ps){
+        return calcRaw(c, ps);
+    }
+
+    /**
+     * Calculate the raw fitness of a chromosome that is parent with some genes moved, which changed
+     * {@link Chromosome#conflicts(ProblemSet)} by conflictsDelta. By default this is just a full calculation.
+     */
+    default double calcRawMoved(Chromosome c, Chromosome parent, int conflictsDelta, ProblemSet ps){
+        return calcRaw(c, ps);
+    }
     default double normalize(double raw){
         return 100/(1+raw);
     }
@@ -14,6 +31,21 @@ public interface Fitness {
         return Math.abs(100-normalized)<Double.MIN_VALUE;
     }
 
+    /**
+     * A raw fitness no chromosome can do better than on the problem set, proven from the problem set alone. By default
+     * nothing is known and this is the raw fitness of a complete solution.
+     */
+    default double lowerBound(ProblemSet ps, GAParameters.EncodingKind encoding){
+        return 0;
+    }
+
+    /**
+     * @return If normalized is complete or as good as the provided {@link #lowerBound(ProblemSet, GAParameters.EncodingKind)} allows
+     */
+    default boolean reached(double normalized, double lowerBound){
+        return complete(normalized) || normalized >= normalize(lowerBound);
+    }
+
     default Comparator<Chromosome> rank(ProblemSet ps){
         return Comparator.comparingDouble(c -> c.fitness);
     }
@@ -5,4 +5,19 @@ import ga.GA;
 
 public interface Selector {
     Chromosome select(Chromosome[] chromosomes, GA ga);
+
+    /**
+     * Select the individual for a particular slot of the new population, by default the slot is ignored
+     */
+    default Chromosome select(Chromosome[] chromosomes, int slot, GA ga){
+        return select(chromosomes, ga);
+    }
+
+    /**
+     * Called once a generation before anything is selected from chromosomes. Selectors which build something from the
+     * whole population return a selector which uses it for the rest of the generation.
+     */
+    default Selector prepare(Chromosome[] chromosomes, GA ga){
+        return this;
+    }
 }
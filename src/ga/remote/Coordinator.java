@@ -0,0 +1,226 @@
+package ga.remote;
+
+import ga.Chromosome;
+import ga.GA;
+import ga.GAParameters;
+import ga.GenerationStat;
+import ga.Islands;
+import ga.PhaseMetrics;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.SocketAddress;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the islands of the island model in {@link Worker} processes instead of this one.
+ * <br/>
+ * Workers connect one socket per island they can host. A seed takes as many connections as it has islands for as long
+ * as it runs, the {@link Islands} it drives migrates individuals between them the same way it would between local
+ * islands, so the result is the same as running the islands in this process.
+ */
+public class Coordinator implements AutoCloseable {
+    private final ServerSocket server;
+    private final ArrayDeque<Protocol.Connection> idle = new ArrayDeque<>();
+    private final List<Protocol.Connection> connections = new ArrayList<>();
+
+    /**
+     * Start accepting workers at host:port
+     */
+    public Coordinator(String host, int port) throws IOException {
+        server = new ServerSocket();
+        server.bind(new InetSocketAddress(host == null ? InetAddress.getLoopbackAddress() : InetAddress.getByName(host), port));
+        var acceptor = new Thread(this::accept, "coordinator");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * @return The address workers connect to
+     */
+    public SocketAddress address(){
+        return server.getLocalSocketAddress();
+    }
+
+    private void accept(){
+        while(!server.isClosed()){
+            try {
+                var connection = new Protocol.Connection(server.accept());
+                synchronized (this){
+                    connections.add(connection);
+                    idle.add(connection);
+                    notifyAll();
+                }
+            } catch (IOException e) {
+                if(!server.isClosed()) throw new RuntimeException(e);
+            }
+        }
+    }
+
+    /**
+     * Wait until count islands are connected and not in use and take them all at once
+     */
+    public synchronized List<Islands.Island> acquire(int count){
+        while(idle.size() < count){
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        var islands = new ArrayList<Islands.Island>();
+        for(int i = 0; i < count; i ++) islands.add(new RemoteIsland(idle.poll()));
+        return islands;
+    }
+
+    /**
+     * Give islands taken with {@link #acquire(int)} back once their run is over
+     */
+    public synchronized void release(List<Islands.Island> islands){
+        for(var island : islands) idle.add(((RemoteIsland) island).connection);
+        notifyAll();
+    }
+
+    /**
+     * Set up an island taken with {@link #acquire(int)} for a new run
+     * @param phaseTimes    if the islands record {@link GA#phaseTimes}
+     * @param fitnessCache  the size of the islands fitness cache, or null for none
+     * @param greedyRatio   the islands {@link GA#greedyRatio}, or null for the default
+     * @param localSearchMoves  the islands {@link GA#localSearchMoves}, or null for the default
+     * @return island
+     */
+    public static Islands.Island create(Islands.Island island, GAParameters params, long seed, int populationSize, boolean extendedStats, boolean phaseTimes, Integer fitnessCache, Double greedyRatio, Integer localSearchMoves){
+        var remote = (RemoteIsland) island;
+        remote.create(params, seed, populationSize, extendedStats, phaseTimes, fitnessCache == null ? 0 : fitnessCache, greedyRatio, localSearchMoves);
+        return remote;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        server.close();
+        // workers stop once the coordinator hangs up
+        for(var connection : connections) connection.close();
+    }
+
+    /**
+     * An island hosted by a worker on the other end of a connection
+     */
+    private static final class RemoteIsland implements Islands.Island {
+        private final Protocol.Connection connection;
+        private final ArrayList<GenerationStat> stats = new ArrayList<>();
+        // scores chromosomes sent back by the worker, it is never run
+        private GA ga;
+
+        private RemoteIsland(Protocol.Connection connection){
+            this.connection = connection;
+        }
+
+        private void create(GAParameters params, long seed, int populationSize, boolean extendedStats, boolean phaseTimes, int fitnessCache, Double greedyRatio, Integer localSearchMoves){
+            ga = params.create(seed, populationSize, null);
+            if(greedyRatio != null) ga.greedyRatio = greedyRatio;
+            if(localSearchMoves != null) ga.localSearchMoves = localSearchMoves;
+            call(() -> {
+                connection.out.writeByte(Protocol.CREATE);
+                Protocol.writeProblemSet(connection.out, params.problemSet);
+                Protocol.writeParams(connection.out, params);
+                connection.out.writeLong(seed);
+                connection.out.writeInt(populationSize);
+                connection.out.writeBoolean(extendedStats);
+                connection.out.writeBoolean(phaseTimes);
+                connection.out.writeInt(fitnessCache);
+                connection.out.writeDouble(ga.greedyRatio);
+                connection.out.writeInt(ga.localSearchMoves);
+            });
+        }
+
+        @Override
+        public Chromosome start() {
+            call(() -> connection.out.writeByte(Protocol.START));
+            return readEvolved();
+        }
+
+        @Override
+        public Chromosome evolve(int from, int to) {
+            call(() -> {
+                connection.out.writeByte(Protocol.EVOLVE);
+                connection.out.writeInt(from);
+                connection.out.writeInt(to);
+            });
+            return readEvolved();
+        }
+
+        private Chromosome readEvolved(){
+            try {
+                var best = Protocol.readChromosome(connection.in, ga);
+                var from = stats.size();
+                Protocol.readStats(connection.in, stats);
+                // the worker counted these in its own process, they belong in the metrics of this one too
+                for(var stat : stats.subList(from, stats.size()))
+                    if(stat.phases != null) PhaseMetrics.INSTANCE.add(stat.phases);
+                return best;
+            } catch (IOException e) {
+                throw lost(e);
+            }
+        }
+
+        @Override
+        public Chromosome[] emigrants(int count) {
+            call(() -> {
+                connection.out.writeByte(Protocol.EMIGRATE);
+                connection.out.writeInt(count);
+            });
+            try {
+                return Protocol.readChromosomes(connection.in, ga);
+            } catch (IOException e) {
+                throw lost(e);
+            }
+        }
+
+        @Override
+        public Chromosome immigrate(Chromosome[] immigrants) {
+            call(() -> {
+                connection.out.writeByte(Protocol.IMMIGRATE);
+                Protocol.writeChromosomes(connection.out, immigrants);
+            });
+            try {
+                return Protocol.readChromosome(connection.in, ga);
+            } catch (IOException e) {
+                throw lost(e);
+            }
+        }
+
+        @Override
+        public List<GenerationStat> stats() {
+            return stats;
+        }
+
+        private interface Request {
+            void write() throws IOException;
+        }
+
+        /**
+         * Send a request and wait for its reply to start, throwing if the worker failed
+         */
+        private void call(Request request){
+            try {
+                request.write();
+                connection.out.flush();
+                if(connection.in.readByte() != Protocol.OK)
+                    throw new RuntimeException("Worker " + connection.socket.getRemoteSocketAddress() + " failed: " + Protocol.readString(connection.in));
+            } catch (IOException e) {
+                throw lost(e);
+            }
+        }
+
+        /**
+         * @return e with the worker it happened talking to
+         */
+        private RuntimeException lost(IOException e){
+            return new RuntimeException("Lost the connection to worker " + connection.socket.getRemoteSocketAddress(), e);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package ga.remote;
+
+import data.Course;
+import data.ProblemSet;
+import data.Room;
+import data.Timeslot;
+import ga.Chromosome;
+import ga.GA;
+import ga.GAParameters;
+import ga.GenerationStat;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The messages a {@link Coordinator} and the islands of a {@link Worker} exchange.
+ * <br/>
+ * Every connection hosts a single island. The coordinator sends a command and then waits for its reply, which starts
+ * with {@link #OK} or {@link #ERROR} followed by a message. All values are big endian as written by
+ * {@link DataOutputStream}.
+ * <pre>
+ * CREATE    params, problem set, long seed, int populationSize, boolean extendedStats, boolean phaseTimes,
+ *           int fitnessCache (0 if off), double greedyRatio, int localSearchMoves
+ * START     -> chromosome best, stats
+ * EVOLVE    int from, int to -> chromosome best, stats
+ * EMIGRATE  int count -> int count, chromosomes
+ * IMMIGRATE int count, chromosomes -> chromosome best
+ * </pre>
+ * Stats are only the generations evolved since the last reply. Chromosomes are sent as their genes, without the courses
+ * when the encoding is positional, and the receiver scores them again.
+ */
+final class Protocol {
+    static final byte CREATE = 1;
+    static final byte START = 2;
+    static final byte EVOLVE = 3;
+    static final byte EMIGRATE = 4;
+    static final byte IMMIGRATE = 5;
+
+    static final byte OK = 0;
+    static final byte ERROR = 1;
+
+    private Protocol(){}
+
+    /**
+     * A socket with buffered streams in both directions
+     */
+    static final class Connection implements Closeable {
+        final Socket socket;
+        final DataInputStream in;
+        final DataOutputStream out;
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            socket.setTcpNoDelay(true);
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    static void writeString(DataOutputStream out, String str) throws IOException {
+        out.writeUTF(str);
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        return in.readUTF();
+    }
+
+    static void writeProblemSet(DataOutputStream out, ProblemSet problemSet) throws IOException {
+        out.writeInt(problemSet.courses.size());
+        for(var course : problemSet.courses){
+            writeString(out, course.name);
+            writeString(out, course.professor);
+            out.writeInt(course.students);
+            out.writeInt(course.duration);
+        }
+        out.writeInt(problemSet.rooms.size());
+        for(var room : problemSet.rooms){
+            writeString(out, room.name);
+            out.writeInt(room.capacity);
+        }
+        out.writeInt(problemSet.timeslots.size());
+        for(var timeslot : problemSet.timeslots){
+            out.writeByte(timeslot.day.ordinal());
+            out.writeInt(timeslot.hour);
+        }
+    }
+
+    static ProblemSet readProblemSet(DataInputStream in) throws IOException {
+        var courses = new ArrayList<Course>();
+        for(int i = in.readInt(); i > 0; i --)
+            courses.add(new Course(readString(in), readString(in), in.readInt(), in.readInt()));
+        var rooms = new ArrayList<Room>();
+        for(int i = in.readInt(); i > 0; i --)
+            rooms.add(new Room(readString(in), in.readInt()));
+        var timeslots = new ArrayList<Timeslot>();
+        for(int i = in.readInt(); i > 0; i --)
+            timeslots.add(new Timeslot(Timeslot.Day.values()[in.readByte()], in.readInt()));
+        return new ProblemSet(courses, rooms, timeslots);
+    }
+
+    /**
+     * Writes everything in params except the problem set
+     */
+    static void writeParams(DataOutputStream out, GAParameters params) throws IOException {
+        out.writeInt(params.elitismRate);
+        out.writeDouble(params.crossoverRate);
+        out.writeDouble(params.mutationRate);
+        out.writeInt(params.populationSize);
+        out.writeInt(params.tournamentSize);
+        writeString(out, params.initialize.name());
+        writeString(out, params.select.name());
+        writeString(out, params.fitness.name());
+        writeString(out, params.mutate.name());
+        writeString(out, params.crossover.name());
+        writeString(out, params.encoding.name());
+        writeString(out, params.rng.name());
+    }
+
+    static GAParameters readParams(DataInputStream in, ProblemSet problemSet) throws IOException {
+        var params = new GAParameters(problemSet);
+        params.elitismRate = in.readInt();
+        params.crossoverRate = in.readDouble();
+        params.mutationRate = in.readDouble();
+        params.populationSize = in.readInt();
+        params.tournamentSize = in.readInt();
+        params.initialize = GAParameters.InitializerKind.valueOf(readString(in));
+        params.select = GAParameters.SelectionKind.valueOf(readString(in));
+        params.fitness = GAParameters.FitnessKind.valueOf(readString(in));
+        params.mutate = GAParameters.MutationKind.valueOf(readString(in));
+        params.crossover = GAParameters.CrossoverKind.valueOf(readString(in));
+        params.encoding = GAParameters.EncodingKind.valueOf(readString(in));
+        params.rng = GA.GaRNG.Engine.valueOf(readString(in));
+        return params;
+    }
+
+    static void writeChromosome(DataOutputStream out, Chromosome c) throws IOException {
+        c.write(out);
+    }
+
+    /**
+     * @param ga scores the chromosome, it must have the same encoding as the GA it was written with
+     */
+    static Chromosome readChromosome(DataInputStream in, GA ga) throws IOException {
+        return Chromosome.read(in, ga);
+    }
+
+    static void writeChromosomes(DataOutputStream out, Chromosome[] chromosomes) throws IOException {
+        out.writeInt(chromosomes.length);
+        for(var c : chromosomes) writeChromosome(out, c);
+    }
+
+    static Chromosome[] readChromosomes(DataInputStream in, GA ga) throws IOException {
+        var chromosomes = new Chromosome[in.readInt()];
+        for(int i = 0; i < chromosomes.length; i ++) chromosomes[i] = readChromosome(in, ga);
+        return chromosomes;
+    }
+
+    static void writeStats(DataOutputStream out, List<GenerationStat> stats) throws IOException {
+        out.writeInt(stats.size());
+        for(var stat : stats) stat.write(out);
+    }
+
+    static void readStats(DataInputStream in, List<GenerationStat> stats) throws IOException {
+        for(int i = in.readInt(); i > 0; i --) stats.add(GenerationStat.read(in));
+    }
+}
@@ -0,0 +1,147 @@
+package ga.remote;
+
+import data.ProblemSet;
+import ga.FitnessCache;
+import ga.GA;
+import ga.GenerationStat;
+import ga.Islands;
+import ga.PhaseMetrics;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.Socket;
+import java.util.ArrayList;
+
+/**
+ * Hosts islands for a {@link Coordinator} running in another process. Each island gets its own connection and thread,
+ * and runs whatever the coordinator asks of it until the coordinator hangs up.
+ */
+public class Worker {
+
+    /**
+     * Connect islands to the coordinator at host:port and serve them until every connection is closed
+     */
+    public static void run(String host, int port, int islands) {
+        var threads = new ArrayList<Thread>();
+        for(int i = 0; i < islands; i ++){
+            var connection = connect(host, port);
+            var index = i;
+            var thread = new Thread(() -> serve(connection, index), "island-" + i);
+            thread.start();
+            threads.add(thread);
+        }
+        for(var thread : threads){
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    /**
+     * Connect to the coordinator, giving it some time to start up if it isn't listening yet
+     */
+    private static Protocol.Connection connect(String host, int port){
+        for(int attempt = 0; ; attempt ++){
+            try {
+                return new Protocol.Connection(new Socket(host, port));
+            } catch (ConnectException e) {
+                if(attempt == 60) throw new RuntimeException(e);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    /**
+     * Serve the commands of a single island. A command which fails, including reading or writing it, is reported to
+     * the coordinator as failed if the connection still works, either way the island stops.
+     */
+    private static void serve(Protocol.Connection connection, int index){
+        try(connection){
+            var in = connection.in;
+            var out = connection.out;
+            ProblemSet problemSet = null;
+            GA ga = null;
+            // scores immigrants, it has no fitness cache so they aren't counted as if the island created them
+            GA decoder = null;
+            Islands.Island island = null;
+            var sent = 0;
+            while(true){
+                byte command;
+                try {
+                    command = in.readByte();
+                } catch (EOFException e) {
+                    return;
+                }
+                try {
+                    switch(command){
+                        case Protocol.CREATE -> {
+                            var received = Protocol.readProblemSet(in);
+                            // consecutive seeds of a sweep share the same problem set, keep its index around
+                            if(problemSet == null
+                                    || !problemSet.courses.equals(received.courses)
+                                    || !problemSet.rooms.equals(received.rooms)
+                                    || !problemSet.timeslots.equals(received.timeslots)){
+                                problemSet = received;
+                            }
+                            var params = Protocol.readParams(in, problemSet);
+                            var seed = in.readLong();
+                            var populationSize = in.readInt();
+                            ga = params.create(seed, populationSize, null);
+                            decoder = params.create(seed, populationSize, null);
+                            ga.extendedStats = in.readBoolean();
+                            ga.phaseTimes = in.readBoolean();
+                            if(ga.phaseTimes) PhaseMetrics.register();
+                            var fitnessCache = in.readInt();
+                            if(fitnessCache > 0) ga.cache = new FitnessCache(fitnessCache);
+                            ga.greedyRatio = in.readDouble();
+                            ga.localSearchMoves = in.readInt();
+                            island = Islands.local(ga);
+                            sent = 0;
+                            out.writeByte(Protocol.OK);
+                        }
+                        case Protocol.START, Protocol.EVOLVE -> {
+                            var best = command == Protocol.START
+                                    ? island.start()
+                                    : island.evolve(in.readInt(), in.readInt());
+                            var stats = new ArrayList<GenerationStat>(island.stats().subList(sent, island.stats().size()));
+                            sent = island.stats().size();
+                            out.writeByte(Protocol.OK);
+                            Protocol.writeChromosome(out, best);
+                            Protocol.writeStats(out, stats);
+                        }
+                        case Protocol.EMIGRATE -> {
+                            var emigrants = island.emigrants(in.readInt());
+                            out.writeByte(Protocol.OK);
+                            Protocol.writeChromosomes(out, emigrants);
+                        }
+                        case Protocol.IMMIGRATE -> {
+                            var best = island.immigrate(Protocol.readChromosomes(in, decoder));
+                            out.writeByte(Protocol.OK);
+                            Protocol.writeChromosome(out, best);
+                        }
+                        default -> throw new RuntimeException("Unknown command " + command);
+                    }
+                } catch (RuntimeException | IOException e) {
+                    // the rest of the command can't be trusted so the connection can't be used after this
+                    out.writeByte(Protocol.ERROR);
+                    Protocol.writeString(out, "island " + index + ": " + e);
+                    out.flush();
+                    return;
+                }
+                out.flush();
+            }
+        } catch (IOException e) {
+            // the coordinator can't be told, it finds out once its own reads fail
+            System.err.println("Island " + index + " lost its connection to the coordinator: " + e);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package util;
+
+import ga.Checkpoint;
+import ga.GA;
+import ga.GAParameters;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Everything a sweep needs to pick up where it left off if the JVM dies: the latest {@link Checkpoint} of every seed
+ * still running and the result of every seed that has finished, in a directory per configuration.
+ * <br/>
+ * Files are written by a single background thread, to a temporary file which is then moved into place, so runs never
+ * wait on the disk and a crash never leaves half a file behind. Every file starts with a key made from the
+ * configuration, problem set, seed and generations it belongs to, files with a different key are from another sweep
+ * and ignored.
+ */
+public final class Checkpoints implements AutoCloseable {
+    private static final int MAGIC = 0x47414350;
+
+    private final Path dir;
+    /** how many generations apart each GA is checkpointed, 0 to only keep finished seeds */
+    public final int interval;
+    private final int generations;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        var thread = new Thread(r, "checkpoints");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @FunctionalInterface
+    private interface Body {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * @param resume    keep what is already in dir rather than starting over
+     */
+    public Checkpoints(Path dir, int interval, int generations, boolean resume) throws IOException {
+        this.dir = dir;
+        this.interval = interval;
+        this.generations = generations;
+        if(!resume) delete(dir);
+        Files.createDirectories(dir);
+    }
+
+    private Path file(int run, long seed, String extension){
+        return dir.resolve("run" + run).resolve("seed" + seed + "." + extension);
+    }
+
+    private String key(GAParameters params, long seed){
+        // not the hash codes of the problem set, its timeslots hash their day by identity which changes every JVM
+        return params.toString().replace('\n', ' ')
+                + " problemSet: " + ResultCache.sha256(params.problemSet.toString())
+                + " seed: " + seed
+                + " generations: " + generations;
+    }
+
+    /**
+     * Resume ga from the latest checkpoint of the seed if there is one, and have it checkpoint itself from then on.
+     * @return The checkpoint ga resumes from, or null if it starts from the beginning
+     */
+    public Checkpoint attach(GA ga, GAParameters params, int run, long seed){
+        var file = file(run, seed, "ckpt");
+        var key = key(params, seed);
+        Checkpoint resumed = null;
+        try(var in = open(file, key)){
+            if(in != null) resumed = Checkpoint.read(in, ga);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        if(resumed != null) ga.resume(resumed);
+        if(interval > 0){
+            ga.checkpointInterval = interval;
+            ga.checkpoints = checkpoint -> save(file, key, checkpoint::write);
+        }
+        return resumed;
+    }
+
+    /**
+     * Load the result of a seed which finished in an earlier attempt into run
+     * @return If the seed had finished
+     */
+    public boolean loadFinished(GAParameters params, int runNum, GARuns.GARun run){
+        try(var in = open(file(runNum, run.seed, "done"), key(params, run.seed))){
+            if(in == null) return false;
+            run.read(in, params);
+            return true;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Keep the result of a seed which just finished, its checkpoint is no longer needed
+     */
+    public void finished(GAParameters params, int runNum, GARuns.GARun run){
+        // written later on the writer thread so it gets its own copy
+        var done = new GARuns.GARun(run.seed);
+        done.best = run.best;
+        done.finished = run.finished;
+        done.generationStats = new ArrayList<>(run.generationStats);
+        done.stagnation = new ArrayList<>(run.stagnation);
+        save(file(runNum, run.seed, "done"), key(params, run.seed), done::write);
+        var checkpoint = file(runNum, run.seed, "ckpt");
+        writer.execute(() -> {
+            try {
+                Files.deleteIfExists(checkpoint);
+            } catch (IOException e) {
+                System.err.println("Failed to delete checkpoint " + checkpoint + ": " + e);
+            }
+        });
+    }
+
+    /**
+     * Forget everything kept for a configuration once its results have been written out
+     */
+    public void finishedConfiguration(int run){
+        var runDir = dir.resolve("run" + run);
+        writer.execute(() -> {
+            try {
+                delete(runDir);
+            } catch (IOException e) {
+                System.err.println("Failed to delete checkpoints " + runDir + ": " + e);
+            }
+        });
+    }
+
+    /**
+     * Write a file on the background thread, a failure is reported but doesn't stop the sweep
+     */
+    private void save(Path file, String key, Body body){
+        writer.execute(() -> {
+            var tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try {
+                Files.createDirectories(file.getParent());
+                try(var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))){
+                    out.writeInt(MAGIC);
+                    out.writeUTF(key);
+                    body.write(out);
+                }
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                System.err.println("Failed to write checkpoint " + file + ": " + e);
+            }
+        });
+    }
+
+    /**
+     * @return The file positioned after its key, or null if it doesn't exist or belongs to something else
+     */
+    private static DataInputStream open(Path file, String key) throws IOException {
+        if(!Files.exists(file)) return null;
+        var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)));
+        if(in.readInt() != MAGIC || !in.readUTF().equals(key)){
+            in.close();
+            return null;
+        }
+        return in;
+    }
+
+    private static void delete(Path path) throws IOException {
+        if(!Files.exists(path)) return;
+        try(var files = Files.walk(path)){
+            for(var file : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(file);
+        }
+    }
+
+    /**
+     * Wait for every file to be written
+     */
+    @Override
+    public void close() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
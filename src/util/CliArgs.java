@@ -1,7 +1,10 @@
 package util;
 
 import data.ProblemSet;
+import ga.GA;
 import ga.GAParameters;
+import ga.Islands;
+import ga.Stagnation;
 
 import java.io.IOException;
 import java.util.Arrays;
@@ -13,22 +16,68 @@ import java.util.List;
 public class CliArgs {
     public long[] seeds;
     public boolean gui;
+    public boolean extendedStats;
+    public boolean phaseTimes;
     public Integer generations;
+    public Integer generationThreads;
+    public Integer runThreads;
+    public Integer virtualCarriers;
+    public Integer fitnessCache;
+    public Integer islands;
+    public Integer migrationInterval;
+    public Integer migrants;
+    public Islands.Topology migrationTopology;
+    public String coordinatorHost;
+    public Integer coordinatorPort;
+    public String workerHost;
+    public Integer workerPort;
+    public Integer workerIslands;
+    public Double greedyRatio;
+    public Integer localSearchMoves;
+    public Integer checkpointInterval;
+    public String checkpointDir;
+    public boolean resume;
+    /** where results are cached between sweeps, null if they aren't */
+    public String resultCache;
+    public Integer stagnationGenerations;
+    public Double stagnationDiversity;
+    public Stagnation.Policy stagnationPolicy;
+    /** built from the stagnation options, null if none were given */
+    public Stagnation stagnation;
+    public String analyzeRuns;
     public ProblemSet problemSet;
     public List<Integer> elitismRates;
     public List<Double> crossoverRates;
     public List<Double> mutationRates;
     public List<Integer> populationSizes;
+    public List<Integer> tournamentSizes;
     public List<GAParameters.InitializerKind> initializerKinds;
     public List<GAParameters.SelectionKind> selectionKinds;
     public List<GAParameters.FitnessKind> fitnessKinds;
     public List<GAParameters.MutationKind> mutationKinds;
     public List<GAParameters.CrossoverKind> crossoverKinds;
+    public List<GAParameters.EncodingKind> encodingKinds;
+    public List<GA.GaRNG.Engine> rngEngines;
 
     public CliArgs(String... args) throws IOException {
         for(int ai = 0; ai < args.length; ai ++){
             switch(args[ai]){
                 case "--gui" -> gui = true;
+                case "--extended-stats" -> extendedStats = true;
+                case "--phase-times" -> phaseTimes = true;
+                case "--resume" -> resume = true;
+                case "--checkpoint-interval" -> {
+                    if(checkpointInterval != null) throw new RuntimeException("Checkpoint interval already specified elsewhere");
+                    checkpointInterval = Integer.parseInt(args[++ai].trim());
+                }
+                case "--checkpoint-dir" -> {
+                    if(checkpointDir != null) throw new RuntimeException("Checkpoint directory already specified elsewhere");
+                    checkpointDir = args[++ai];
+                }
+                case "--result-cache" -> {
+                    if(resultCache != null) throw new RuntimeException("Result cache already specified elsewhere");
+                    resultCache = args[++ai];
+                }
                 case "--seeds-linear" -> {
                     if(seeds != null) throw new RuntimeException("Seeds already specified elsewhere");
                     int len = Integer.parseInt(args[++ai]);
@@ -65,6 +114,10 @@ public class CliArgs {
                     if(populationSizes != null) throw new RuntimeException("Population sizes already specified elsewhere");
                     populationSizes = Arrays.stream(args[++ai].split(",")).map(String::trim).map(Integer::parseInt).toList();
                 }
+                case "--tournament-sizes" -> {
+                    if(tournamentSizes != null) throw new RuntimeException("Tournament sizes already specified elsewhere");
+                    tournamentSizes = Arrays.stream(args[++ai].split(",")).map(String::trim).map(Integer::parseInt).toList();
+                }
                 case "--initializer-kinds" -> {
                     if(initializerKinds != null) throw new RuntimeException("Initializer kinds already specified elsewhere");
                     initializerKinds = Arrays.stream(args[++ai].split(",")).map(String::trim).map(GAParameters.InitializerKind::valueOf).toList();
@@ -85,12 +138,103 @@ public class CliArgs {
                     if(crossoverKinds != null) throw new RuntimeException("Crossover kinds already specified elsewhere");
                     crossoverKinds = Arrays.stream(args[++ai].split(",")).map(String::trim).map(GAParameters.CrossoverKind::valueOf).toList();
                 }
+                case "--encoding-kinds" -> {
+                    if(encodingKinds != null) throw new RuntimeException("Encoding kinds already specified elsewhere");
+                    encodingKinds = Arrays.stream(args[++ai].split(",")).map(String::trim).map(GAParameters.EncodingKind::valueOf).toList();
+                }
+                case "--rng-engines" -> {
+                    if(rngEngines != null) throw new RuntimeException("RNG engines already specified elsewhere");
+                    rngEngines = Arrays.stream(args[++ai].split(",")).map(String::trim).map(GA.GaRNG.Engine::valueOf).toList();
+                }
+                case "--analyze-runs" -> {
+                    if(analyzeRuns != null) throw new RuntimeException("Runs to analyze already specified elsewhere");
+                    analyzeRuns = args[++ai];
+                }
+                case "--run-threads" -> {
+                    if(runThreads != null) throw new RuntimeException("Run threads already specified elsewhere");
+                    runThreads = Integer.parseInt(args[++ai].trim());
+                }
+                case "--virtual-threads" -> {
+                    if(virtualCarriers != null) throw new RuntimeException("Virtual thread carriers already specified elsewhere");
+                    virtualCarriers = Integer.parseInt(args[++ai].trim());
+                }
+                case "--parallel-generations" -> {
+                    if(generationThreads != null) throw new RuntimeException("Generation threads already specified elsewhere");
+                    generationThreads = Integer.parseInt(args[++ai].trim());
+                }
+                case "--fitness-cache" -> {
+                    if(fitnessCache != null) throw new RuntimeException("Fitness cache already specified elsewhere");
+                    fitnessCache = Integer.parseInt(args[++ai].trim());
+                }
+                case "--islands" -> {
+                    if(islands != null) throw new RuntimeException("Islands already specified elsewhere");
+                    islands = Integer.parseInt(args[++ai].trim());
+                }
+                case "--migration-interval" -> {
+                    if(migrationInterval != null) throw new RuntimeException("Migration interval already specified elsewhere");
+                    migrationInterval = Integer.parseInt(args[++ai].trim());
+                }
+                case "--migrants" -> {
+                    if(migrants != null) throw new RuntimeException("Migrants already specified elsewhere");
+                    migrants = Integer.parseInt(args[++ai].trim());
+                }
+                case "--migration-topology" -> {
+                    if(migrationTopology != null) throw new RuntimeException("Migration topology already specified elsewhere");
+                    migrationTopology = Islands.Topology.valueOf(args[++ai].trim());
+                }
+                case "--coordinator" -> {
+                    if(coordinatorPort != null) throw new RuntimeException("Coordinator already specified elsewhere");
+                    var address = args[++ai].trim();
+                    var split = address.lastIndexOf(':');
+                    coordinatorHost = split == -1 ? null : address.substring(0, split);
+                    coordinatorPort = Integer.parseInt(address.substring(split + 1));
+                }
+                case "--worker" -> {
+                    if(workerHost != null) throw new RuntimeException("Worker already specified elsewhere");
+                    var address = args[++ai].trim();
+                    var split = address.lastIndexOf(':');
+                    if(split == -1) throw new RuntimeException("Worker must be given the coordinators host:port");
+                    workerHost = address.substring(0, split);
+                    workerPort = Integer.parseInt(address.substring(split + 1));
+                }
+                case "--worker-islands" -> {
+                    if(workerIslands != null) throw new RuntimeException("Worker islands already specified elsewhere");
+                    workerIslands = Integer.parseInt(args[++ai].trim());
+                }
+                case "--greedy-ratio" -> {
+                    if(greedyRatio != null) throw new RuntimeException("Greedy ratio already specified elsewhere");
+                    greedyRatio = Double.parseDouble(args[++ai].trim());
+                }
+                case "--local-search-moves" -> {
+                    if(localSearchMoves != null) throw new RuntimeException("Local search moves already specified elsewhere");
+                    localSearchMoves = Integer.parseInt(args[++ai].trim());
+                }
+                case "--stagnation-generations" -> {
+                    if(stagnationGenerations != null) throw new RuntimeException("Stagnation generations already specified elsewhere");
+                    stagnationGenerations = Integer.parseInt(args[++ai].trim());
+                }
+                case "--stagnation-diversity" -> {
+                    if(stagnationDiversity != null) throw new RuntimeException("Stagnation diversity already specified elsewhere");
+                    stagnationDiversity = Double.parseDouble(args[++ai].trim());
+                }
+                case "--stagnation-policy" -> {
+                    if(stagnationPolicy != null) throw new RuntimeException("Stagnation policy already specified elsewhere");
+                    stagnationPolicy = Stagnation.Policy.valueOf(args[++ai].trim());
+                }
                 case "--generations" -> {
                     if(generations != null) throw new RuntimeException("Crossover kinds already specified elsewhere");
                     generations = Integer.parseInt(args[++ai].trim());
                 }
             }
         }
+        // analyzing previously saved runs doesn't need anything else
+        if(analyzeRuns != null) return;
+        // and workers are sent everything they need by the coordinator
+        if(workerHost != null){
+            if(workerIslands == null) workerIslands = Runtime.getRuntime().availableProcessors();
+            return;
+        }
+        if(runThreads != null && virtualCarriers != null) throw new RuntimeException("Cannot use both run threads and virtual threads");
         if(seeds == null) throw new RuntimeException("Seeds never specified");
         if(generations == null) throw new RuntimeException("Generations never specified");
         if(problemSet == null) throw new RuntimeException("Problem set never specified");
@@ -98,10 +242,27 @@ public class CliArgs {
         if(crossoverRates == null) throw new RuntimeException("Crossover rates never specified");
         if(mutationRates == null) throw new RuntimeException("Mutation rates never specified");
         if(populationSizes == null) throw new RuntimeException("Population sizes never specified");
+        if(tournamentSizes == null) tournamentSizes = List.of(4);
+        if(islands != null && islands < 1) throw new RuntimeException("There must be at least one island");
+        if(coordinatorPort != null && islands == null) throw new RuntimeException("A coordinator needs to know how many islands to run");
+        if(stagnationGenerations != null || stagnationDiversity != null){
+            if(islands != null) throw new RuntimeException("Stagnation detection is not supported with islands");
+            stagnation = new Stagnation(
+                    stagnationGenerations == null ? 0 : stagnationGenerations,
+                    stagnationDiversity == null ? 0 : stagnationDiversity,
+                    stagnationPolicy == null ? Stagnation.Policy.Stop : stagnationPolicy
+            );
+        }
+        if(checkpointDir == null) checkpointDir = "checkpoints";
+        if(migrationInterval == null) migrationInterval = 10;
+        if(migrants == null) migrants = 2;
+        if(migrationTopology == null) migrationTopology = Islands.Topology.Ring;
         if(initializerKinds == null) throw new RuntimeException("Initializer kinds never specified");
         if(selectionKinds == null) throw new RuntimeException("Selection kinds never specified");
         if(fitnessKinds == null) throw new RuntimeException("Fitness kinds never specified");
         if(mutationKinds == null) throw new RuntimeException("Mutation kinds never specified");
         if(crossoverKinds == null) throw new RuntimeException("Crossover kinds never specified");
+        if(encodingKinds == null) encodingKinds = List.of(GAParameters.EncodingKind.Free);
+        if(rngEngines == null) rngEngines = List.of(GA.GaRNG.Engine.Legacy);
     }
 }
@@ -0,0 +1,49 @@
+package util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Java Flight Recorder event spanning a configuration of the sweep, from when its seeds are queued until the last of
+ * them finishes. Configurations are queued up front so they overlap each other.
+ */
+@Name("ga.Configuration")
+@Label("Configuration")
+@Category("Genetic Algorithm")
+@Description("Every seed of a single configuration of the sweep")
+@StackTrace(false)
+public final class ConfigurationEvent extends Event {
+    @Label("Run")
+    public int run;
+    @Label("Parameters")
+    public String params;
+    @Label("Seeds")
+    public int seeds;
+    @Label("Resumed")
+    @Description("If the configuration had already finished in an earlier attempt")
+    public boolean resumed;
+    @Label("Completed")
+    @Description("How many seeds found a complete solution")
+    public int completed;
+    @Label("Mean Best Fitness")
+    public double meanBestFit;
+    @Label("Mean Generations")
+    public double meanGenerations;
+
+    /**
+     * Fill out the configuration and its results, once {@link GARuns#calculateFinalResults()} has been called
+     */
+    public void set(GARuns runs, int seeds, boolean resumed){
+        run = runs.run;
+        params = runs.params.toString().replace('\n', ' ').strip();
+        this.seeds = seeds;
+        this.resumed = resumed;
+        completed = runs.completed;
+        meanBestFit = runs.normalized.mean;
+        meanGenerations = runs.gen.mean;
+    }
+}
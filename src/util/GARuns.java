@@ -5,8 +5,16 @@ import data.Room;
 import data.Timeslot;
 import ga.*;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.DoubleStream;
 
 /**
@@ -23,6 +31,13 @@ public class GARuns {
     public Statistics completedGen;
     public Statistics gen;
     public int run;
+    /** the best raw fitness possible on the problem set, and how many runs reached it */
+    public double lowerBound;
+    public int reachedBound;
+    /** the phase times of every generation of every run added up, null if they weren't recorded */
+    public PhaseTimes phaseTimes;
+    /** how many generations phaseTimes is the sum of */
+    public int timedGenerations;
 
     /**
      * Basic statistics calculated for some provided list of doubles
@@ -115,6 +130,15 @@ public class GARuns {
                 .mapToDouble(v -> v.generationStats.size()-1)
         );
         completed = (int)runs.stream().filter(v -> params.fitness.fitness.complete(v.best.fitness)).count();
+        lowerBound = params.fitness.fitness.lowerBound(params.problemSet, params.encoding);
+        reachedBound = (int)runs.stream().filter(v -> params.fitness.fitness.reached(v.best.fitness, lowerBound)).count();
+        var timed = runs.stream()
+                .flatMap(v -> v.generationStats.stream())
+                .map(s -> s.phases)
+                .filter(Objects::nonNull)
+                .toList();
+        timedGenerations = timed.size();
+        phaseTimes = timed.stream().reduce(PhaseTimes::plus).orElse(null);
     }
 
 
@@ -123,56 +147,137 @@ public class GARuns {
         public ArrayList<GenerationStat> generationStats;
         public Chromosome best;
         public boolean finished;
+        /** every time the run stagnated, in order */
+        public List<Stagnation.Event> stagnation = List.of();
 
         public GARun(long seed) {
             this.seed = seed;
         }
+
+        /**
+         * Write the result of the run, everything but its seed
+         */
+        public void write(DataOutputStream out) throws IOException {
+            out.writeBoolean(finished);
+            best.write(out);
+            out.writeInt(generationStats.size());
+            for(var stat : generationStats) stat.write(out);
+            out.writeInt(stagnation.size());
+            for(var event : stagnation) event.write(out);
+        }
+
+        /**
+         * Read a result written by {@link #write(DataOutputStream)} into this run
+         * @param params    the configuration of the run, which scores its best chromosome
+         */
+        public void read(DataInputStream in, GAParameters params) throws IOException {
+            finished = in.readBoolean();
+            best = Chromosome.read(in, params.create(seed, 1, null));
+            generationStats = new ArrayList<>();
+            for(int i = in.readInt(); i > 0; i --) generationStats.add(GenerationStat.read(in));
+            var stagnation = new ArrayList<Stagnation.Event>();
+            for(int i = in.readInt(); i > 0; i --) stagnation.add(Stagnation.Event.read(in));
+            this.stagnation = stagnation;
+        }
     }
 
-    public String json(Statistics stat){
-        return Util.objln(
-                Util.field("min", stat.min),
-                Util.field("max", stat.max),
-                Util.field("average", stat.mean),
-                Util.field("median", stat.median),
-                Util.field("std", stat.std)
-        );
+    private static void json(JsonWriter out, Statistics stat){
+        out.beginObject();
+        out.field("min", stat.min);
+        out.field("max", stat.max);
+        out.field("average", stat.mean);
+        out.field("median", stat.median);
+        out.field("std", stat.std);
+        out.endObject();
     }
 
-    public String json(GARun run) {
-        return Util.objln(
-                Util.field("seed", run.seed),
-                Util.field("finished", run.finished),
-                Util.field("gen_stats", Util.arrln(run.generationStats.stream().map(GARuns::json))),
-                Util.field("best", Util.objln(
-                        Util.field("normalized", run.best.fitness),
-                        Util.field("raw", run.best.rawFitness),
-                        Util.field("chromosome", Util.arrln(run.best.genes().map(GARuns.this::json)))
-                ))
-        );
+    private void json(JsonWriter out, GARun run) {
+        out.beginObject();
+        out.field("seed", run.seed);
+        out.field("finished", run.finished);
+        if(!run.stagnation.isEmpty()){
+            out.name("stagnation");
+            out.beginArray();
+            for(var event : run.stagnation){
+                out.element();
+                out.value(Util.obj(
+                        Util.field("generation", event.generation),
+                        Util.fieldStr("reason", event.reason.name()),
+                        Util.fieldStr("action", event.action.name())
+                ));
+            }
+            out.endArray();
+        }
+        out.name("gen_stats");
+        out.beginArray();
+        for(var stat : run.generationStats){
+            out.element();
+            out.value(json(stat));
+        }
+        out.endArray();
+        out.name("best");
+        out.beginObject();
+        out.field("normalized", run.best.fitness);
+        out.field("raw", run.best.rawFitness);
+        out.name("chromosome");
+        out.beginArray();
+        run.best.genes().forEach(gene -> {
+            out.element();
+            out.value(json(gene));
+        });
+        out.endArray();
+        out.endObject();
+        out.endObject();
     }
 
     private String json(Gene stat) {
         return Util.obj(
                 Util.field("room", json(params.problemSet.rooms.get(stat.roomIdx))),
-                Util.field("course", json(params.problemSet.courses.get(stat.roomIdx))),
-                Util.field("timeslot", json(params.problemSet.timeslots.get(stat.roomIdx)))
+                Util.field("course", json(params.problemSet.courses.get(stat.courseIdx))),
+                Util.field("timeslot", json(params.problemSet.timeslots.get(stat.timeslotIdx)))
         );
     }
 
     private static String json(GenerationStat stat) {
-        return Util.obj(
-                Util.field("normalized", Util.obj(
-                        Util.field("max", stat.maxFit),
-                        Util.field("min", stat.minFit),
-                        Util.field("average", stat.averageFit)
-                )),
-                Util.field("raw", Util.obj(
-                        Util.field("max", stat.maxRawFit),
-                        Util.field("min", stat.minRawFit),
-                        Util.field("average", stat.averageRawFit)
-                ))
-        );
+        var normalized = new ArrayList<>(List.of(
+                Util.field("max", stat.maxFit),
+                Util.field("min", stat.minFit),
+                Util.field("average", stat.averageFit)
+        ));
+        var raw = new ArrayList<>(List.of(
+                Util.field("max", stat.maxRawFit),
+                Util.field("min", stat.minRawFit),
+                Util.field("average", stat.averageRawFit)
+        ));
+        if(!Double.isNaN(stat.stdFit)) normalized.add(Util.field("std", stat.stdFit));
+        if(!Double.isNaN(stat.stdRawFit)) raw.add(Util.field("std", stat.stdRawFit));
+        if(stat.distinctRawFit >= 0) raw.add(Util.field("distinct", stat.distinctRawFit));
+        if(stat.rawPercentiles != null) raw.add(Util.field("percentiles",
+                Arrays.stream(stat.rawPercentiles).mapToObj(String::valueOf).collect(Collectors.joining(", ", "[", "]"))
+        ));
+
+        var fields = new ArrayList<>(List.of(
+                Util.field("normalized", Util.obj(normalized.toArray(String[]::new))),
+                Util.field("raw", Util.obj(raw.toArray(String[]::new)))
+        ));
+        if(stat.bestIndex >= 0) fields.add(Util.field("best_index", stat.bestIndex));
+        if(stat.cacheHits >= 0) fields.add(Util.field("cache", Util.obj(
+                Util.field("hits", stat.cacheHits),
+                Util.field("misses", stat.cacheMisses)
+        )));
+        if(stat.phases != null) fields.add(Util.field("phases", json(stat.phases)));
+        return Util.obj(fields.toArray(String[]::new));
+    }
+
+    private static String json(PhaseTimes times) {
+        var fields = new ArrayList<String>();
+        for(var phase : PhaseTimes.Phase.values())
+            fields.add(Util.field(phase.name().toLowerCase() + "_ns", times.nanos(phase)));
+        fields.add(Util.field("fitness_ns", times.fitnessNanos));
+        fields.add(Util.field("evaluations", times.evaluations));
+        fields.add(Util.field("crossovers", times.crossovers));
+        fields.add(Util.field("mutations", times.mutations));
+        return Util.obj(fields.toArray(String[]::new));
     }
 
     private static String json(Room room) {
@@ -198,36 +303,84 @@ public class GARuns {
         );
     }
 
-    private static String json(GAParameters params) {
-        return Util.objln(
-                Util.field("elitism_rate", params.elitismRate),
-                Util.field("crossover_rate", params.crossoverRate),
-                Util.field("mutation_rate", params.mutationRate),
-                Util.field("population_size", params.populationSize),
-                Util.fieldStr("initialize", params.initialize.toString()),
-                Util.fieldStr("select", params.select.toString()),
-                Util.fieldStr("fitness", params.fitness.toString()),
-                Util.fieldStr("mutate", params.mutate.toString()),
-                Util.fieldStr("crossover", params.crossover.toString())
-        );
+    private static void json(JsonWriter out, GAParameters params) {
+        out.beginObject();
+        out.field("elitism_rate", params.elitismRate);
+        out.field("crossover_rate", params.crossoverRate);
+        out.field("mutation_rate", params.mutationRate);
+        out.field("population_size", params.populationSize);
+        out.field("tournament_size", params.tournamentSize);
+        out.fieldStr("initialize", params.initialize.toString());
+        out.fieldStr("select", params.select.toString());
+        out.fieldStr("fitness", params.fitness.toString());
+        out.fieldStr("mutate", params.mutate.toString());
+        out.fieldStr("crossover", params.crossover.toString());
+        out.fieldStr("encoding", params.encoding.toString());
+        out.fieldStr("rng", params.rng.toString());
+        out.endObject();
+    }
+
+    private static <T> void jsonArray(JsonWriter out, String name, List<T> items, Function<T, String> json){
+        out.name(name);
+        out.beginArray();
+        for(var item : items){
+            out.element();
+            out.value(json.apply(item));
+        }
+        out.endArray();
+    }
+
+    /**
+     * Write these results as json to out one piece at a time
+     */
+    public void json(JsonWriter out){
+        out.beginObject();
+        out.field("completed", completed);
+        // only interesting when a complete solution is impossible
+        if(lowerBound != 0){
+            out.field("lower_bound", lowerBound);
+            out.field("reached_bound", reachedBound);
+        }
+        if(phaseTimes != null){
+            out.name("phase_times");
+            out.beginObject();
+            out.field("generations", timedGenerations);
+            out.field("mean_generation_ns", (double) phaseTimes.totalNanos() / timedGenerations);
+            out.name("total");
+            out.value(json(phaseTimes));
+            out.endObject();
+        }
+        out.name("normalized");
+        json(out, normalized);
+        out.name("raw");
+        json(out, raw);
+        out.name("completedGen");
+        json(out, completedGen);
+        out.name("gen");
+        json(out, gen);
+        out.name("params: ");
+        json(out, params);
+        jsonArray(out, "averaged_gen_stats", averagedStats, GARuns::json);
+        out.name("runs");
+        out.beginArray();
+        for(var run : runs){
+            out.element();
+            json(out, run);
+        }
+        out.endArray();
+        out.name("problem_set");
+        out.beginObject();
+        jsonArray(out, "courses", params.problemSet.courses, GARuns::json);
+        jsonArray(out, "rooms", params.problemSet.rooms, GARuns::json);
+        jsonArray(out, "timeslots", params.problemSet.timeslots, GARuns::json);
+        out.endObject();
+        out.endObject();
     }
 
     public String json(){
-        return Util.objln(
-                Util.field("completed", completed),
-                Util.field("normalized", json(normalized)),
-                Util.field("raw", json(raw)),
-                Util.field("completedGen", json(completedGen)),
-                Util.field("gen", json(gen)),
-                Util.field("params: ", json(params)),
-                Util.field("averaged_gen_stats", Util.arrln(averagedStats.stream().map(GARuns::json))),
-                Util.field("runs", Util.arrln(runs.stream().map(this::json))),
-                Util.field("problem_set", Util.objln(
-                        Util.field("courses", Util.arrln(params.problemSet.courses.stream().map(GARuns::json))),
-                        Util.field("rooms", Util.arrln(params.problemSet.rooms.stream().map(GARuns::json))),
-                        Util.field("timeslots", Util.arrln(params.problemSet.timeslots.stream().map(GARuns::json)))
-                ))
-        );
+        var str = new StringWriter();
+        json(new JsonWriter(str));
+        return str.toString();
     }
 
     @Override
@@ -0,0 +1,293 @@
+package util;
+
+import ga.GA;
+import ga.GAParameters;
+import ga.GenerationStat;
+import ga.PhaseTimes;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.IntStream;
+
+/**
+ * A compact binary form of {@link GARuns} which can be read back through a memory mapped file without parsing.
+ * <br/>
+ * Layout, all values big endian:
+ * <pre>
+ * int magic, int version, int run
+ * params: int elitismRate, double crossoverRate, double mutationRate, int populationSize, int tournamentSize,
+ *         then the initializer, selection, fitness, mutation, crossover and encoding kind names and the rng engine
+ *         name as (short length, utf8 bytes)
+ * double lower bound, int timed generations, then if that is above 0 the phase times of every timed generation of
+ *     every seed added up, as {@link PhaseTimes#write} writes them
+ * averaged stats: int generations, then one double column per {@link Column} of that length
+ * int seeds, then for every seed:
+ *     long seed, byte finished, double best fitness, double best raw fitness,
+ *     int genes, then int columns of the best chromosomes rooms, courses and timeslots, without the courses when
+ *     the encoding is positional,
+ *     int generations, then one double column per {@link Column} of that length
+ * </pre>
+ */
+public class GARunsFile {
+    private static final int MAGIC = 0x47415253;
+    private static final int VERSION = 1;
+
+    /**
+     * The values of a {@link GenerationStat}, each one is stored as its own column
+     */
+    public enum Column {
+        MinFit(s -> s.minFit),
+        MaxFit(s -> s.maxFit),
+        AverageFit(s -> s.averageFit),
+        MinRawFit(s -> s.minRawFit),
+        MaxRawFit(s -> s.maxRawFit),
+        AverageRawFit(s -> s.averageRawFit);
+        private final ToDoubleFunction<GenerationStat> get;
+        Column(ToDoubleFunction<GenerationStat> get) {
+            this.get = get;
+        }
+    }
+
+    private final ByteBuffer buf;
+    public final int run;
+    public final GAParameters params;
+    /** see {@link GARuns#lowerBound} */
+    public final double lowerBound;
+    /** see {@link GARuns#phaseTimes}, null if no generation was timed */
+    public final PhaseTimes phaseTimes;
+    public final int timedGenerations;
+    // the number of int columns each best chromosome is stored as
+    private final int geneColumns;
+    private final int averagedOffset;
+    private final int[] seedOffsets;
+
+    /**
+     * Memory map and index the file at path
+     */
+    public GARunsFile(Path path) throws IOException {
+        try(var channel = FileChannel.open(path, StandardOpenOption.READ)){
+            buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if(buf.getInt() != MAGIC) throw new RuntimeException("Not a runs file: " + path);
+        if(buf.getInt() != VERSION) throw new RuntimeException("Unsupported runs file version: " + path);
+        run = buf.getInt();
+
+        params = new GAParameters(null);
+        params.elitismRate = buf.getInt();
+        params.crossoverRate = buf.getDouble();
+        params.mutationRate = buf.getDouble();
+        params.populationSize = buf.getInt();
+        params.tournamentSize = buf.getInt();
+        params.initialize = GAParameters.InitializerKind.valueOf(readString());
+        params.select = GAParameters.SelectionKind.valueOf(readString());
+        params.fitness = GAParameters.FitnessKind.valueOf(readString());
+        params.mutate = GAParameters.MutationKind.valueOf(readString());
+        params.crossover = GAParameters.CrossoverKind.valueOf(readString());
+        params.encoding = GAParameters.EncodingKind.valueOf(readString());
+        params.rng = GA.GaRNG.Engine.valueOf(readString());
+        geneColumns = params.encoding == GAParameters.EncodingKind.Positional ? 2 : 3;
+        lowerBound = buf.getDouble();
+        timedGenerations = buf.getInt();
+        phaseTimes = timedGenerations > 0 ? PhaseTimes.read(buf) : null;
+
+        averagedOffset = buf.position();
+        skipColumns();
+
+        seedOffsets = new int[buf.getInt()];
+        for(int i = 0; i < seedOffsets.length; i ++){
+            seedOffsets[i] = buf.position();
+            buf.position(buf.position() + 8 + 1 + 8 + 8);
+            var genes = buf.getInt();
+            buf.position(buf.position() + genes * geneColumns * 4);
+            skipColumns();
+        }
+    }
+
+    private String readString(){
+        var bytes = new byte[buf.getShort()];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void skipColumns(){
+        var generations = buf.getInt();
+        buf.position(buf.position() + generations * Column.values().length * 8);
+    }
+
+    private DoubleBuffer column(int offset, Column column){
+        var generations = buf.getInt(offset);
+        return buf.slice(offset + 4 + column.ordinal() * generations * 8, generations * 8).asDoubleBuffer();
+    }
+
+    private int geneOffset(int seed){
+        return seedOffsets[seed] + 8 + 1 + 8 + 8;
+    }
+
+    private int statsOffset(int seed){
+        var offset = geneOffset(seed);
+        return offset + 4 + buf.getInt(offset) * geneColumns * 4;
+    }
+
+    /**
+     * @return The column of the averaged generation stats
+     */
+    public DoubleBuffer averaged(Column column){
+        return column(averagedOffset, column);
+    }
+
+    public int seeds(){
+        return seedOffsets.length;
+    }
+
+    public long seed(int seed){
+        return buf.getLong(seedOffsets[seed]);
+    }
+
+    public boolean finished(int seed){
+        return buf.get(seedOffsets[seed] + 8) != 0;
+    }
+
+    public double bestFitness(int seed){
+        return buf.getDouble(seedOffsets[seed] + 8 + 1);
+    }
+
+    public double bestRawFitness(int seed){
+        return buf.getDouble(seedOffsets[seed] + 8 + 1 + 8);
+    }
+
+    public int genes(int seed){
+        return buf.getInt(geneOffset(seed));
+    }
+
+    public int roomIdx(int seed, int gene){
+        return buf.getInt(geneOffset(seed) + 4 + gene * 4);
+    }
+
+    public int courseIdx(int seed, int gene){
+        if(geneColumns == 2) return gene;
+        return buf.getInt(geneOffset(seed) + 4 + (genes(seed) + gene) * 4);
+    }
+
+    public int timeslotIdx(int seed, int gene){
+        return buf.getInt(geneOffset(seed) + 4 + (genes(seed) * (geneColumns - 1) + gene) * 4);
+    }
+
+    /**
+     * @return The number of generations recorded for the seed, including the initial population
+     */
+    public int generations(int seed){
+        return buf.getInt(statsOffset(seed));
+    }
+
+    /**
+     * @return The column of the generation stats of the seed
+     */
+    public DoubleBuffer stats(int seed, Column column){
+        return column(statsOffset(seed), column);
+    }
+
+    /**
+     * The same summary {@link GARuns#calculateFinalResults()} produces, without the individual runs. This is
+     * everything needed to compare configurations.
+     */
+    public GARuns summary(){
+        var runs = new GARuns(params);
+        runs.run = run;
+        var columns = new DoubleBuffer[Column.values().length];
+        for(var column : Column.values()) columns[column.ordinal()] = averaged(column);
+        for(int i = 0; i < columns[0].limit(); i ++){
+            runs.averagedStats.add(new GenerationStat(
+                    columns[Column.MinFit.ordinal()].get(i),
+                    columns[Column.MaxFit.ordinal()].get(i),
+                    columns[Column.AverageFit.ordinal()].get(i),
+                    columns[Column.MinRawFit.ordinal()].get(i),
+                    columns[Column.MaxRawFit.ordinal()].get(i),
+                    columns[Column.AverageRawFit.ordinal()].get(i)
+            ));
+        }
+
+        runs.normalized = new GARuns.Statistics(IntStream.range(0, seeds()).mapToDouble(this::bestFitness));
+        runs.raw = new GARuns.Statistics(IntStream.range(0, seeds()).mapToDouble(this::bestRawFitness));
+        runs.completedGen = new GARuns.Statistics(IntStream.range(0, seeds())
+                .filter(this::finished)
+                .mapToDouble(s -> generations(s) - 1)
+        );
+        runs.gen = new GARuns.Statistics(IntStream.range(0, seeds()).mapToDouble(s -> generations(s) - 1));
+        runs.completed = (int) IntStream.range(0, seeds()).filter(this::finished).count();
+        runs.lowerBound = lowerBound;
+        runs.reachedBound = (int) IntStream.range(0, seeds())
+                .filter(s -> params.fitness.fitness.reached(bestFitness(s), lowerBound))
+                .count();
+        runs.phaseTimes = phaseTimes;
+        runs.timedGenerations = timedGenerations;
+        return runs;
+    }
+
+    private static void writeString(DataOutputStream out, String str) throws IOException {
+        var bytes = str.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeColumns(DataOutputStream out, List<GenerationStat> stats) throws IOException {
+        out.writeInt(stats.size());
+        for(var column : Column.values()){
+            for(var value : stats.stream().mapToDouble(column.get).toArray()) out.writeDouble(value);
+        }
+    }
+
+    /**
+     * Write runs to the file at path in the binary format
+     */
+    public static void write(GARuns runs, Path path) throws IOException {
+        try(var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))){
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(runs.run);
+
+            out.writeInt(runs.params.elitismRate);
+            out.writeDouble(runs.params.crossoverRate);
+            out.writeDouble(runs.params.mutationRate);
+            out.writeInt(runs.params.populationSize);
+            out.writeInt(runs.params.tournamentSize);
+            writeString(out, runs.params.initialize.name());
+            writeString(out, runs.params.select.name());
+            writeString(out, runs.params.fitness.name());
+            writeString(out, runs.params.mutate.name());
+            writeString(out, runs.params.crossover.name());
+            writeString(out, runs.params.encoding.name());
+            writeString(out, runs.params.rng.name());
+
+            out.writeDouble(runs.lowerBound);
+            out.writeInt(runs.phaseTimes == null ? 0 : runs.timedGenerations);
+            if(runs.phaseTimes != null) runs.phaseTimes.write(out);
+
+            writeColumns(out, runs.averagedStats);
+
+            out.writeInt(runs.runs.size());
+            for(var run : runs.runs){
+                out.writeLong(run.seed);
+                out.writeBoolean(run.finished);
+                out.writeDouble(run.best.fitness);
+                out.writeDouble(run.best.rawFitness);
+                var genes = run.best.length();
+                out.writeInt(genes);
+                for(int i = 0; i < genes; i ++) out.writeInt(run.best.roomIdx(i));
+                if(runs.params.encoding != GAParameters.EncodingKind.Positional)
+                    for(int i = 0; i < genes; i ++) out.writeInt(run.best.courseIdx(i));
+                for(int i = 0; i < genes; i ++) out.writeInt(run.best.timeslotIdx(i));
+                writeColumns(out, run.generationStats);
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes json with the same layout as {@link Util#objln} and {@link Util#arrln} directly to a writer as it is produced,
+ * instead of building the whole document up as nested strings first.
+ * <br/>
+ * Small values which fit on one line can still be built with {@link Util#obj} and written with {@link #value(String)}.
+ */
+public class JsonWriter implements Closeable {
+    private final Writer out;
+    private int depth = 0;
+    private boolean empty = true;
+
+    public JsonWriter(Writer out) {
+        this.out = out;
+    }
+
+    private void write(String str){
+        try {
+            out.write(str);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void newline(int depth){
+        write("\n");
+        for(int i = 0; i < depth; i ++) write("\t");
+    }
+
+    private void begin(String open){
+        write(open);
+        depth += 1;
+        empty = true;
+    }
+
+    private void end(String close){
+        if(empty) newline(depth);
+        depth -= 1;
+        newline(depth);
+        write(close);
+        empty = false;
+    }
+
+    private void separator(){
+        if(!empty) write(",");
+        newline(depth);
+        empty = false;
+    }
+
+    /**
+     * Start a multi line object, every entry must be started with {@link #name(String)}
+     */
+    public void beginObject(){
+        begin("{");
+    }
+
+    public void endObject(){
+        end("}");
+    }
+
+    /**
+     * Start a multi line array, every entry must be started with {@link #element()}
+     */
+    public void beginArray(){
+        begin("[");
+    }
+
+    public void endArray(){
+        end("]");
+    }
+
+    /**
+     * Start the next entry of the current object
+     */
+    public void name(String name){
+        separator();
+        write("\"" + name + "\": ");
+    }
+
+    /**
+     * Start the next entry of the current array
+     */
+    public void element(){
+        separator();
+    }
+
+    /**
+     * Write a value which is already formatted as json
+     */
+    public void value(String json){
+        write(json);
+    }
+
+    public void field(String name, int value){
+        name(name);
+        write(String.valueOf(value));
+    }
+
+    public void field(String name, long value){
+        name(name);
+        write(String.valueOf(value));
+    }
+
+    public void field(String name, double value){
+        name(name);
+        write(String.valueOf(value));
+    }
+
+    public void field(String name, boolean value){
+        name(name);
+        write(String.valueOf(value));
+    }
+
+    public void fieldStr(String name, String string){
+        name(name);
+        write("\"" + string + "\"");
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
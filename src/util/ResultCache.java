@@ -0,0 +1,167 @@
+package util;
+
+import ga.GAParameters;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The results of seeds run by earlier sweeps, kept on disk so running a sweep again after changing some of its options
+ * only runs the seeds it hasn't run before.
+ * <br/>
+ * Results are content addressed, each is stored under the SHA-256 of everything which decides it: the contents of the
+ * problem set, the configuration, the seed, the generations, the options which change how a GA runs and
+ * {@link #engineVersion()}. The key is also kept in the file and checked when it is loaded. A result is the same
+ * encoding {@link Checkpoints} keeps finished seeds in, gzipped.
+ */
+public final class ResultCache {
+    private static final int MAGIC = 0x47415252;
+
+    private final Path dir;
+    // everything from the cli which changes the result of a seed besides its configuration
+    private final String options;
+
+    public ResultCache(Path dir, CliArgs cli) throws IOException {
+        this.dir = dir;
+        Files.createDirectories(dir);
+        var stagnation = cli.stagnation;
+        this.options = String.join(" ",
+                "engine: " + engineVersion(),
+                "generations: " + cli.generations,
+                // the thread count doesn't matter, only whether generations are evolved in parallel
+                "parallel: " + (cli.generationThreads != null),
+                "islands: " + (cli.islands == null ? "none"
+                        : cli.islands + " " + cli.migrationTopology + " " + cli.migrationInterval + " " + cli.migrants),
+                "stagnation: " + (stagnation == null ? "none"
+                        : stagnation.generations + " " + stagnation.diversity + " " + stagnation.policy),
+                "greedyRatio: " + cli.greedyRatio,
+                "localSearchMoves: " + cli.localSearchMoves,
+                "fitnessCache: " + cli.fitnessCache,
+                "extendedStats: " + cli.extendedStats,
+                "phaseTimes: " + cli.phaseTimes
+        );
+    }
+
+    /**
+     * The SHA-256 of every class file this program was loaded from, so any rebuild which changes the code stops results
+     * from before it being reused without anything having to be bumped by hand. Changes which don't affect results
+     * invalidate the cache too, which only costs running those seeds again.
+     */
+    static String engineVersion(){
+        try {
+            var source = Path.of(ResultCache.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            var digest = MessageDigest.getInstance("SHA-256");
+            if(Files.isDirectory(source)){
+                List<Path> classes;
+                try(var files = Files.walk(source)){
+                    classes = files.filter(p -> p.toString().endsWith(".class")).sorted().toList();
+                }
+                for(var file : classes){
+                    digest.update(source.relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+                    digest.update(Files.readAllBytes(file));
+                }
+            }else{
+                try(var jar = new JarFile(source.toFile())){
+                    var entries = jar.stream()
+                            .filter(e -> e.getName().endsWith(".class"))
+                            .sorted(Comparator.comparing(JarEntry::getName))
+                            .toList();
+                    for(var entry : entries){
+                        digest.update(entry.getName().getBytes(StandardCharsets.UTF_8));
+                        try(var in = jar.getInputStream(entry)){
+                            digest.update(in.readAllBytes());
+                        }
+                    }
+                }
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException | URISyntaxException | NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private String key(GAParameters params, long seed){
+        return options
+                + " problemSet: " + sha256(params.problemSet.toString())
+                + " params: " + params.toString().replace('\n', ' ').strip()
+                + " seed: " + seed;
+    }
+
+    private Path file(String key){
+        var hash = sha256(key);
+        return dir.resolve(hash.substring(0, 2)).resolve(hash.substring(2) + ".result");
+    }
+
+    /**
+     * @return The SHA-256 of str as hex, how both this and {@link Checkpoints} identify a problem set in their keys
+     */
+    static String sha256(String str){
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(str.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Load the result of run, whose seed is already set, if an earlier sweep ran it. A result which can't be read is
+     * reported and treated as missing, so the seed is run again and replaces it.
+     * @return If the result was found
+     */
+    public boolean load(GAParameters params, GARuns.GARun run){
+        var key = key(params, run.seed);
+        var file = file(key);
+        if(!Files.exists(file)) return false;
+        try(var in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file))))){
+            if(in.readInt() != MAGIC || !in.readUTF().equals(key)) return false;
+            run.read(in, params);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Failed to read cached result " + file + ": " + e);
+            return false;
+        }
+    }
+
+    /**
+     * Keep the result of run for later sweeps. It is written to a temporary file which is then moved into place, so
+     * a sweep killed part way through never leaves half a result behind.
+     */
+    public void store(GAParameters params, GARuns.GARun run){
+        var key = key(params, run.seed);
+        var file = file(key);
+        Path tmp = null;
+        try {
+            Files.createDirectories(file.getParent());
+            tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            try(var out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(tmp))))){
+                out.writeInt(MAGIC);
+                out.writeUTF(key);
+                run.write(out);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Failed to cache result " + file + ": " + e);
+            try {
+                if(tmp != null) Files.deleteIfExists(tmp);
+            } catch (IOException ignore) {}
+        }
+    }
+}
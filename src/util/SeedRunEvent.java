@@ -0,0 +1,55 @@
+package util;
+
+import ga.GAParameters;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Java Flight Recorder event spanning a single seed of a configuration, from when it starts running until its result
+ * is in
+ */
+@Name("ga.SeedRun")
+@Label("Seed Run")
+@Category("Genetic Algorithm")
+@Description("A single seed of a configuration of the sweep")
+@StackTrace(false)
+public final class SeedRunEvent extends Event {
+    @Label("Run")
+    @Description("The configuration the seed belongs to")
+    public int run;
+    @Label("Seed")
+    public long seed;
+    @Label("Parameters")
+    public String params;
+    @Label("Resumed")
+    @Description("If the seed carried on from a checkpoint, or its result came from an earlier attempt or the result cache")
+    public boolean resumed;
+    @Label("Generations")
+    public int generations;
+    @Label("Finished")
+    @Description("If a complete solution was found")
+    public boolean finished;
+    @Label("Best Fitness")
+    public double bestFit;
+    @Label("Best Raw Fitness")
+    public double bestRawFit;
+
+    /**
+     * Fill out the seed and its result
+     */
+    public void set(int run, GAParameters params, GARuns.GARun result, boolean resumed){
+        this.run = run;
+        this.seed = result.seed;
+        this.params = params.toString().replace('\n', ' ').strip();
+        this.resumed = resumed;
+        generations = result.generationStats.size() - 1;
+        finished = result.finished;
+        bestFit = result.best.fitness;
+        bestRawFit = result.best.rawFitness;
+    }
+}
@@ -0,0 +1,72 @@
+package ga;
+
+import data.ProblemSet;
+import data.Room;
+import data.Timeslot;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import util.Util;
+
+import java.io.IOException;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * {@link Chromosome#conflicts(ProblemSet)} scores against the dense {@link data.ProblemIndex}, it has to give exactly
+ * what scoring against the problem set's own rooms, timeslots and professors did.
+ */
+class ConflictsTest {
+
+    static GA ga(ProblemSet problemSet, GAParameters.EncodingKind encoding, long seed){
+        var params = new GAParameters(problemSet);
+        params.populationSize = 10;
+        params.initialize = GAParameters.InitializerKind.Random;
+        params.select = GAParameters.SelectionKind.Tournament;
+        params.fitness = GAParameters.FitnessKind.WeightedConflicts;
+        params.mutate = GAParameters.MutationKind.SingleGene;
+        params.crossover = GAParameters.CrossoverKind.OnePoint;
+        params.encoding = encoding;
+        return params.create(seed, params.populationSize, null);
+    }
+
+    /**
+     * The scoring every chromosome had before the problem index, one hash set entry per occupied hour
+     */
+    static int hashSetConflicts(Chromosome c, ProblemSet problemSet){
+        int conflicts = 0;
+
+        HashSet<Util.Tuple<Timeslot, Room>> roomUsage = new HashSet<>();
+        HashSet<Util.Tuple<Timeslot, String>> profSched = new HashSet<>();
+
+        for(int gene = 0; gene < c.length(); gene ++){
+            var room = problemSet.rooms.get(c.roomIdx(gene));
+            var timeslot = problemSet.timeslots.get(c.timeslotIdx(gene));
+            var course = problemSet.courses.get(c.courseIdx(gene));
+
+            if(course.students > room.capacity) conflicts += 4;
+
+            for(int i = timeslot.hour; i < timeslot.hour + course.duration; i ++){
+                var currTimeslot = new Timeslot(timeslot.day, i);
+                if(!profSched.add(new Util.Tuple<>(currTimeslot, course.professor))) conflicts += 1;
+                if(!roomUsage.add(new Util.Tuple<>(currTimeslot, room))) conflicts += 2;
+            }
+        }
+
+        return conflicts;
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"data/t1", "data/t2"})
+    void denseScoringMatchesHashSetScoring(String dir) throws IOException {
+        var problemSet = new ProblemSet(dir);
+        for(var encoding : GAParameters.EncodingKind.values()){
+            var ga = ga(problemSet, encoding, 1);
+            for(int i = 0; i < 500; i ++){
+                var c = i % 2 == 0 ? Chromosome.random(ga) : Chromosome.greedy(ga);
+                assertEquals(hashSetConflicts(c, problemSet), c.conflicts(problemSet), encoding + " chromosome " + i);
+                assertEquals(c.conflicts(problemSet), c.rawFitness);
+            }
+        }
+    }
+}
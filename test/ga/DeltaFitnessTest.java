@@ -0,0 +1,51 @@
+package ga;
+
+import data.ProblemSet;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Mutated chromosomes are scored from their parent's fitness and the delta of the moved gene, that has to be the same
+ * as scoring them from scratch.
+ */
+class DeltaFitnessTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"data/t1", "data/t2"})
+    void singleGeneMutationMatchesFullScoring(String dir) throws IOException {
+        var problemSet = new ProblemSet(dir);
+        for(var encoding : GAParameters.EncodingKind.values()){
+            var ga = ConflictsTest.ga(problemSet, encoding, 2);
+            for(int walk = 0; walk < 20; walk ++){
+                var c = Chromosome.random(ga);
+                for(int move = 0; move < 200; move ++){
+                    var child = c.singleGeneMutation(ga);
+                    assertEquals(child.conflicts(problemSet), child.rawFitness, encoding + " walk " + walk + " move " + move);
+                    // walk on from the child most of the time so deltas are taken against parents of every fitness
+                    if(move % 4 != 0) c = child;
+                }
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"data/t1", "data/t2"})
+    void localSearchMatchesFullScoring(String dir) throws IOException {
+        var problemSet = new ProblemSet(dir);
+        for(var encoding : GAParameters.EncodingKind.values()){
+            var ga = ConflictsTest.ga(problemSet, encoding, 3);
+            for(int i = 0; i < 50; i ++){
+                var c = Chromosome.random(ga);
+                for(int climb = 0; climb < 5; climb ++){
+                    var improved = c.localSearch(ga);
+                    assertEquals(improved.conflicts(problemSet), improved.rawFitness, encoding + " chromosome " + i + " climb " + climb);
+                    c = improved;
+                }
+            }
+        }
+    }
+}
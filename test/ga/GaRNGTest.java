@@ -0,0 +1,110 @@
+package ga;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Every engine has to keep giving the numbers of the JDK generator it is named after, so runs can be reproduced, and
+ * checkpoints rely on their state round tripping.
+ */
+class GaRNGTest {
+
+    private static RandomGenerator jdk(GA.GaRNG.Engine engine, long seed){
+        return switch(engine){
+            case Legacy -> new Random(seed);
+            case Splittable -> new SplittableRandom(seed);
+            case L64X128Mix -> RandomGeneratorFactory.of("L64X128MixRandom").create(seed);
+            case Xoshiro256PlusPlus -> RandomGeneratorFactory.of("Xoshiro256PlusPlus").create(seed);
+            case Xoroshiro128PlusPlus -> RandomGeneratorFactory.of("Xoroshiro128PlusPlus").create(seed);
+        };
+    }
+
+    @ParameterizedTest
+    @EnumSource(GA.GaRNG.Engine.class)
+    void enginesMatchTheJdk(GA.GaRNG.Engine engine){
+        for(long seed : new long[]{0, 1, 42, -7, Long.MAX_VALUE}){
+            var rng = new GA.GaRNG(engine, seed);
+            var random = jdk(engine, seed);
+            for(int i = 0; i < 10_000; i ++){
+                var draw = engine + " seed " + seed + " draw " + i;
+                switch(i % 5){
+                    // bounds which are and aren't powers of two, and large enough to hit the rejection loop
+                    case 0 -> assertEquals(random.nextInt(64), rng.randomInt(64), draw);
+                    case 1 -> assertEquals(random.nextInt(100), rng.randomInt(100), draw);
+                    case 2 -> assertEquals(random.nextInt(Integer.MAX_VALUE / 3 * 2), rng.randomInt(Integer.MAX_VALUE / 3 * 2), draw);
+                    case 3 -> assertEquals(random.nextDouble(), rng.randomDouble(), draw);
+                    case 4 -> assertEquals(random.nextLong(), rng.rand.nextLong(), draw);
+                }
+            }
+        }
+    }
+
+    @Test
+    void percentMatchesJavaUtilRandom(){
+        var rng = new GA.GaRNG(GA.GaRNG.Engine.Legacy, 5);
+        var random = new Random(5);
+        for(int i = 0; i < 1000; i ++) assertEquals(random.nextDouble() < 0.3, rng.percent(0.3));
+    }
+
+    @ParameterizedTest
+    @EnumSource(GA.GaRNG.Engine.class)
+    void stateRoundTrips(GA.GaRNG.Engine engine){
+        var rng = new GA.GaRNG(engine, 9);
+        for(int i = 0; i < 100; i ++) rng.randomInt(1000);
+        var state = rng.state();
+
+        var first = new int[100];
+        for(int i = 0; i < first.length; i ++) first[i] = rng.randomInt(1000);
+
+        // restored into a generator with a different seed, as a resumed run is
+        var resumed = new GA.GaRNG(engine, 10);
+        resumed.restore(state);
+        var second = new int[100];
+        for(int i = 0; i < second.length; i ++) second[i] = resumed.randomInt(1000);
+        assertArrayEquals(first, second);
+    }
+
+    @ParameterizedTest
+    @EnumSource(GA.GaRNG.Engine.class)
+    void bulkFillsMatchSingleDraws(GA.GaRNG.Engine engine){
+        var bulk = new GA.GaRNG(engine, 3);
+        var single = new GA.GaRNG(engine, 3);
+        int[] bounds = {64, 100, Integer.MAX_VALUE / 3 * 2};
+        var ints = new int[3001];
+        var doubles = new double[1000];
+        bulk.randomInts(ints, bounds);
+        bulk.randomDoubles(doubles);
+        for(int i = 0; i < ints.length; i ++) assertEquals(single.randomInt(bounds[i % bounds.length]), ints[i], engine + " int " + i);
+        for(int i = 0; i < doubles.length; i ++) assertEquals(single.randomDouble(), doubles[i], engine + " double " + i);
+        assertEquals(single.randomInt(1000), bulk.randomInt(1000));
+    }
+
+    @ParameterizedTest
+    @EnumSource(GA.GaRNG.Engine.class)
+    void splitIsDeterministicAndRecreatedFromItsSeed(GA.GaRNG.Engine engine){
+        var a = new GA.GaRNG(engine, 4).split();
+        var b = new GA.GaRNG(engine, 4).split();
+        var fromSeed = new GA.GaRNG(engine, a.seed);
+        for(int i = 0; i < 100; i ++){
+            var next = a.randomInt(1000);
+            assertEquals(next, b.randomInt(1000));
+            assertEquals(next, fromSeed.randomInt(1000));
+        }
+    }
+
+    @Test
+    void stateOfAnotherEngineIsRejected(){
+        var rng = new GA.GaRNG(GA.GaRNG.Engine.Xoshiro256PlusPlus, 9);
+        assertThrows(RuntimeException.class, () -> rng.restore(new GA.GaRNG(GA.GaRNG.Engine.Legacy, 9).state()));
+    }
+}